@@ -0,0 +1,72 @@
+package gauss;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Solves many independent systems read from a single input.
+//
+// Systems are written as equations one per line and separated by blank
+// lines. Results are written in input order, each one followed by a blank
+// line, in the same format as the server replies. A system which fails to
+// parse or solve is answered with an `Error: ...` line and the batch goes on.
+public class Batch {
+    private Batch() {}
+
+    // Number of systems queued per worker ahead of the output.
+    private static final int WINDOW_PER_THREAD = 16;
+
+    // Reads systems from `in`, solves them on `threads` workers and writes
+    // the results to `out`. Only a bounded window of systems is held in
+    // memory at once, so inputs of any length are streamed.
+    public static void run(BufferedReader in, Writer out, int threads) throws IOException {
+        run(in, out, threads, null);
+    }
+
+    // Like run(in, out, threads), parsing equations through the cache when
+    // one is given, so equations repeated across systems are parsed once.
+    public static void run(BufferedReader in, Writer out, int threads, EquationCache cache)
+            throws IOException {
+        var pool = Executors.newFixedThreadPool(threads);
+        var pending = new ArrayDeque<Future<String>>();
+        int window = threads * WINDOW_PER_THREAD;
+        try {
+            List<String> lines;
+            while ((lines = Main.readSystem(in)) != null) {
+                if (lines.isEmpty()) {
+                    continue;
+                }
+                var system = lines;
+                pending.add(pool.submit(() -> Main.answer(system, cache)));
+                if (pending.size() >= window) {
+                    write(pending.remove(), out);
+                }
+            }
+            while (!pending.isEmpty()) {
+                write(pending.remove(), out);
+            }
+        }
+        finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static void write(Future<String> result, Writer out) throws IOException {
+        try {
+            out.write(result.get());
+        }
+        catch (ExecutionException e) {
+            out.write("Error: " + e.getCause().getMessage() + "\n");
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted", e);
+        }
+        out.write("\n");
+    }
+}
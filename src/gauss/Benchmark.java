@@ -0,0 +1,306 @@
+package gauss;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+// Macro-benchmark solving a sweep of generated workloads with every engine.
+//
+// For each engine and size it records the wall time, the bytes allocated
+// by the solving thread and the peak heap usage. Once an engine runs past
+// the timeout it's skipped for the remaining, larger sizes. Times can be
+// recorded as a baseline file and later runs compared against it: a run
+// slower than its baseline by more than the threshold is a regression.
+//
+// With --gcd it instead times the normalization of random fractions with
+// BigInteger.gcd against the Rational constructor, with sizes in bits.
+//
+// Usage: gauss.Benchmark [--gcd] [--sizes N,N,...] [--density D] [--bits B]
+//     [--seed S] [--timeout SECONDS] [--baseline FILE] [--record]
+//     [--threshold PERCENT]
+public class Benchmark {
+    // Regressions smaller than this are treated as noise.
+    private static final long MIN_SLACK_MILLIS = 10;
+    // Fractions normalized per size by the gcd benchmark.
+    private static final int GCD_PAIRS = 20;
+
+    private static class Engine {
+        final String name;
+        final Function<Workload, Solution<?>> solve;
+
+        Engine(String name, Function<Workload, Solution<?>> solve) {
+            this.name = name;
+            this.solve = solve;
+        }
+    }
+
+    // Measurements of a single run.
+    static class Result {
+        final String engine;
+        final int size;
+        final long millis;
+        final long allocated;
+        final long peakHeap;
+        final String outcome;
+
+        Result(String engine, int size, long millis, long allocated, long peakHeap, String outcome) {
+            this.engine = engine;
+            this.size = size;
+            this.millis = millis;
+            this.allocated = allocated;
+            this.peakHeap = peakHeap;
+            this.outcome = outcome;
+        }
+
+        String key() { return engine + "." + size; }
+
+        @Override
+        public String toString() {
+            return String.format("%-22s %6d %10d ms %10d KiB alloc %10d KiB heap  %s",
+                engine, size, millis, allocated >> 10, peakHeap >> 10, outcome);
+        }
+    }
+
+    private static List<Engine> engines(Duration timeout) {
+        var engines = new ArrayList<Engine>();
+        for (var method : Matrix.Method.values()) {
+            for (var normalization : Matrix.Normalization.values()) {
+                var name = method.name().toLowerCase().replace('_', '-');
+                if (normalization != Matrix.Normalization.NONE) {
+                    name += "/" + normalization.name().toLowerCase();
+                }
+                engines.add(new Engine(name, w -> {
+                    var budget = new Budget().setTimeout(timeout);
+                    return w.coefficients().solve(w.rightHandSide(), method, normalization, budget);
+                }));
+            }
+        }
+        engines.add(new Engine("wiedemann", w -> {
+            var budget = new Budget().setTimeout(timeout);
+            return new WiedemannSolver().setSeed(0).setBudget(budget).solve(w.system());
+        }));
+        return engines;
+    }
+
+    private static String outcome(Solution<?> solution) {
+        return solution.isUnique() ? "unique" : solution.isInfinite() ? "infinite" : "none";
+    }
+
+    private static long allocatedBytes() {
+        var bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean)bean).getCurrentThreadAllocatedBytes();
+        }
+        return 0;
+    }
+
+    private static List<MemoryPoolMXBean> heapPools() {
+        var pools = new ArrayList<MemoryPoolMXBean>();
+        for (var pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pools.add(pool);
+            }
+        }
+        return pools;
+    }
+
+    // Solves the workload at every size with every engine. Every result is
+    // also passed to `report` as soon as it's measured.
+    static List<Result> run(Workload workload, int[] sizes, Duration timeout,
+            Consumer<Result> report) {
+        var results = new ArrayList<Result>();
+        var pools = heapPools();
+        for (var engine : engines(timeout)) {
+            for (int size : sizes) {
+                workload.setSize(size);
+                workload.system();
+                System.gc();
+                pools.forEach(MemoryPoolMXBean::resetPeakUsage);
+                long allocated = allocatedBytes();
+                long start = System.nanoTime();
+                String outcome;
+                try {
+                    outcome = outcome(engine.solve.apply(workload));
+                }
+                catch (Budget.ExceededException e) {
+                    outcome = "timeout";
+                }
+                long millis = (System.nanoTime() - start) / 1_000_000;
+                allocated = allocatedBytes() - allocated;
+                long peak = 0;
+                for (var pool : pools) {
+                    peak += pool.getPeakUsage().getUsed();
+                }
+                var result = new Result(engine.name, size, millis, allocated, peak, outcome);
+                results.add(result);
+                report.accept(result);
+                if (outcome.equals("timeout") || millis > timeout.toMillis()) {
+                    break;
+                }
+            }
+        }
+        return results;
+    }
+
+    // Builds fractions as the constructor did before Gcd, with BigInteger.gcd.
+    private static Rational reduceWithJdkGcd(BigInteger p, BigInteger q) {
+        var d = p.gcd(q);
+        return Rational.ofReduced(p.divide(d), q.divide(d));
+    }
+
+    // Normalizes random fractions of every size in bits, sharing a common
+    // factor of a quarter of their size, with BigInteger.gcd and with the
+    // Rational constructor. Results are passed to `report` like in run.
+    static List<Result> gcd(int[] sizes, long seed, Consumer<Result> report) {
+        var results = new ArrayList<Result>();
+        for (var name : List.of("rational/jdk-gcd", "rational")) {
+            for (int bits : sizes) {
+                var random = new Random(seed);
+                var pairs = new BigInteger[GCD_PAIRS][];
+                for (int i = 0; i < pairs.length; ++i) {
+                    var d = new BigInteger(bits / 4, random).setBit(0);
+                    var p = new BigInteger(bits, random).multiply(d);
+                    var q = new BigInteger(bits, random).setBit(0).multiply(d);
+                    pairs[i] = new BigInteger[] {p, q};
+                }
+                long allocated = allocatedBytes();
+                long start = System.nanoTime();
+                var out = new Rational[pairs.length];
+                for (int i = 0; i < pairs.length; ++i) {
+                    var p = pairs[i][0];
+                    var q = pairs[i][1];
+                    out[i] = name.equals("rational") ? new Rational(p, q) : reduceWithJdkGcd(p, q);
+                }
+                long millis = (System.nanoTime() - start) / 1_000_000;
+                allocated = allocatedBytes() - allocated;
+                var outcome = "ok";
+                for (int i = 0; i < pairs.length; ++i) {
+                    if (!out[i].equals(reduceWithJdkGcd(pairs[i][0], pairs[i][1]))) {
+                        outcome = "mismatch";
+                    }
+                }
+                var result = new Result(name, bits, millis, allocated, 0, outcome);
+                results.add(result);
+                report.accept(result);
+            }
+        }
+        return results;
+    }
+
+    // Results slower than their baseline by more than `threshold` percent.
+    static List<String> regressions(List<Result> results, Properties baseline, double threshold) {
+        var out = new ArrayList<String>();
+        for (var result : results) {
+            var base = baseline.getProperty(result.key());
+            if (base == null || result.outcome.equals("timeout")) {
+                continue;
+            }
+            long limit = (long)(Long.parseLong(base) * (1 + threshold / 100));
+            if (result.millis > limit && result.millis - Long.parseLong(base) > MIN_SLACK_MILLIS) {
+                out.add(result.key() + ": " + result.millis + " ms, baseline " + base + " ms");
+            }
+        }
+        return out;
+    }
+
+    public static void main(String[] args) throws IOException {
+        var workload = new Workload().setDensity(0.05);
+        int[] sizes = null;
+        boolean gcd = false;
+        long seed = 0;
+        var timeout = Duration.ofSeconds(60);
+        Path baseline = null;
+        boolean record = false;
+        double threshold = 20;
+        for (int i = 0; i < args.length; ++i) {
+            switch (args[i]) {
+                case "--sizes":
+                    var parts = args[++i].split(",");
+                    sizes = new int[parts.length];
+                    for (int k = 0; k < parts.length; ++k) {
+                        sizes[k] = Integer.parseInt(parts[k].trim());
+                    }
+                    break;
+                case "--density":
+                    workload.setDensity(Double.parseDouble(args[++i]));
+                    break;
+                case "--bits":
+                    workload.setBits(Integer.parseInt(args[++i]));
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(args[++i]);
+                    workload.setSeed(seed);
+                    break;
+                case "--gcd":
+                    gcd = true;
+                    break;
+                case "--timeout":
+                    timeout = Duration.ofSeconds(Long.parseLong(args[++i]));
+                    break;
+                case "--baseline":
+                    baseline = Path.of(args[++i]);
+                    break;
+                case "--record":
+                    record = true;
+                    break;
+                case "--threshold":
+                    threshold = Double.parseDouble(args[++i]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+
+        List<Result> results;
+        if (gcd) {
+            if (sizes == null) {
+                sizes = new int[] {1000, 4000, 16000, 64000, 256000};
+            }
+            results = gcd(sizes, seed, System.out::println);
+        }
+        else {
+            if (sizes == null) {
+                sizes = new int[] {10, 20, 50, 100, 200, 500, 1000, 2000, 5000};
+            }
+            results = run(workload, sizes, timeout, System.out::println);
+        }
+        if (baseline == null) {
+            return;
+        }
+        var stored = new Properties();
+        if (record) {
+            for (var result : results) {
+                if (!result.outcome.equals("timeout")) {
+                    stored.setProperty(result.key(), Long.toString(result.millis));
+                }
+            }
+            try (Writer out = Files.newBufferedWriter(baseline)) {
+                stored.store(out, "gauss benchmark baseline, milliseconds");
+            }
+            return;
+        }
+        try (Reader in = Files.newBufferedReader(baseline)) {
+            stored.load(in);
+        }
+        var slow = regressions(results, stored, threshold);
+        for (var line : slow) {
+            System.err.println("Regression " + line);
+        }
+        if (!slow.isEmpty()) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package gauss;
+
+import java.time.Duration;
+import java.time.Instant;
+
+// Resource limits for a single solve. Limits are checked between pivot
+// steps and the solve is aborted with an ExceededException once any of
+// them is hit. Newly created budgets are unlimited. A budget also carries
+// the optional progress callback and checkpoint of the solve.
+public class Budget {
+    // Why a solve was aborted.
+    public enum Reason {
+        DEADLINE,
+        CANCELLED,
+        COEFFICIENT_SIZE,
+        MEMORY,
+    }
+
+    public static class ExceededException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private final Reason reason;
+        private final int done;
+        private final int total;
+
+        public ExceededException(Reason reason, int done, int total) {
+            this(reason, done, total, "pivots");
+        }
+
+        // Counts progress in the given steps instead of pivots.
+        public ExceededException(Reason reason, int done, int total, String steps) {
+            super("Budget exceeded (" + reason + ") after " + done + " of " + total + " " + steps);
+            this.reason = reason;
+            this.done = done;
+            this.total = total;
+        }
+
+        public Reason getReason() { return reason; }
+
+        // Steps completed before the solve was aborted: pivots, or primes
+        // for WiedemannSolver.
+        public int getDone() { return done; }
+
+        // Steps the solve needed in total, at most for WiedemannSolver.
+        public int getTotal() { return total; }
+    }
+
+    // Cancellation flag which can be shared between threads.
+    public static class Token {
+        private volatile boolean cancelled = false;
+
+        public void cancel() { cancelled = true; }
+
+        public boolean isCancelled() { return cancelled; }
+    }
+
+    // Receives the number of completed pivot steps out of the total.
+    public interface Progress {
+        void report(int done, int total);
+    }
+
+    // Rough per-cell overhead of a Rational with its two BigIntegers.
+    private static final long CELL_OVERHEAD = 96;
+
+    private Instant deadline = null;
+    private Token token = null;
+    private int maxBits = 0;
+    private long maxMemory = 0;
+    private Progress progress = null;
+    private Checkpoint checkpoint = null;
+
+    // Aborts the solve after the given instant.
+    // Returns this to allow method chaining.
+    public Budget setDeadline(Instant value) {
+        deadline = value;
+        return this;
+    }
+
+    // Aborts the solve once the given time from now has passed.
+    // Returns this to allow method chaining.
+    public Budget setTimeout(Duration value) {
+        return setDeadline(Instant.now().plus(value));
+    }
+
+    // Aborts the solve once the token is cancelled.
+    // Returns this to allow method chaining.
+    public Budget setToken(Token value) {
+        token = value;
+        return this;
+    }
+
+    // Aborts the solve once a numerator or denominator grows longer than
+    // the given number of bits. Zero means no limit.
+    // Returns this to allow method chaining.
+    public Budget setMaxBits(int value) {
+        maxBits = value;
+        return this;
+    }
+
+    // Aborts the solve once the estimated size of the working matrix
+    // grows over the given number of bytes. Zero means no limit.
+    // Returns this to allow method chaining.
+    public Budget setMaxMemory(long value) {
+        maxMemory = value;
+        return this;
+    }
+
+    // Reports progress after every pivot step.
+    // Returns this to allow method chaining.
+    public Budget setProgress(Progress value) {
+        progress = value;
+        return this;
+    }
+
+    // Writes periodic snapshots of the solve, from which it can be resumed.
+    // Returns this to allow method chaining.
+    public Budget setCheckpoint(Checkpoint value) {
+        checkpoint = value;
+        return this;
+    }
+
+    public Checkpoint getCheckpoint() { return checkpoint; }
+
+    // Checks the time and cancellation limits.
+    void check(int done, int total) {
+        check(done, total, "pivots");
+    }
+
+    // Like check(done, total), with progress counted in the given steps.
+    void check(int done, int total, String steps) {
+        if (token != null && token.isCancelled()) {
+            throw new ExceededException(Reason.CANCELLED, done, total, steps);
+        }
+        if (deadline != null && Instant.now().isAfter(deadline)) {
+            throw new ExceededException(Reason.DEADLINE, done, total, steps);
+        }
+    }
+
+    // Sizes of the rows of a working matrix. The solve updates the rows it
+    // has just written, so checks don't have to rescan the whole matrix.
+    static class Usage {
+        private final Matrix work;
+        private final int[] bits;
+        private final long[] memory;
+        private long total = 0;
+
+        private Usage(Matrix work) {
+            this.work = work;
+            bits = new int[work.height()];
+            memory = new long[work.height()];
+            for (int i = 0; i < work.height(); ++i) {
+                update(i);
+            }
+        }
+
+        // Measures the row again after it was modified.
+        void update(int row) {
+            int b = 0;
+            long m = 0;
+            for (int j = 0; j < work.width(); ++j) {
+                var x = work.get(row, j);
+                int p = x.numerator().bitLength();
+                int q = x.denominator().bitLength();
+                b = Integer.max(b, Integer.max(p, q));
+                m += CELL_OVERHEAD + (p + q) / 8;
+            }
+            total += m - memory[row];
+            bits[row] = b;
+            memory[row] = m;
+        }
+
+        // Follows a swap of two rows in the working matrix.
+        void swap(int a, int b) {
+            int t = bits[a];
+            bits[a] = bits[b];
+            bits[b] = t;
+            long u = memory[a];
+            memory[a] = memory[b];
+            memory[b] = u;
+        }
+
+        int bits() {
+            int max = 0;
+            for (var b : bits) {
+                max = Integer.max(max, b);
+            }
+            return max;
+        }
+
+        long memory() { return total; }
+    }
+
+    // Starts tracking the sizes of the working matrix, or returns null when
+    // the budget doesn't limit them.
+    Usage track(Matrix work) {
+        return maxBits > 0 || maxMemory > 0 ? new Usage(work) : null;
+    }
+
+    // Checks all limits against the tracked working matrix, which may be
+    // null when untracked, and reports progress.
+    void check(Usage usage, int done, int total) {
+        check(done, total);
+        if (usage != null) {
+            if (maxBits > 0 && usage.bits() > maxBits) {
+                throw new ExceededException(Reason.COEFFICIENT_SIZE, done, total);
+            }
+            if (maxMemory > 0 && usage.memory() > maxMemory) {
+                throw new ExceededException(Reason.MEMORY, done, total);
+            }
+        }
+        if (progress != null) {
+            progress.report(done, total);
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package gauss;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Periodic on-disk snapshots of an elimination, attached to a solve with
+// Budget.setCheckpoint. A killed solve can be continued from the last
+// snapshot with Matrix.resume or EquationSystem.resume, which gives the
+// same result as an uninterrupted solve.
+//
+// A snapshot is taken every given number of pivot steps or after the
+// given time, whichever comes first. Taking one only copies references to
+// the immutable cells; serializing happens on a background thread and the
+// file is replaced atomically, so there's always a complete snapshot on
+// disk. While a snapshot is still being written, new ones are skipped.
+// A failed write doesn't stop the solve, which keeps taking snapshots; if
+// the last one failed too, the failure is raised at the end of the solve.
+//
+// Snapshot layout, big-endian: magic, version, method, normalization,
+// coefficient columns, next column, rank, height, width, number of
+// variables followed by their names (zero for plain matrix solves), and
+// the cells row by row in Wire's rational encoding.
+public class Checkpoint {
+    private static final int MAGIC = 0x47434b50;
+    private static final int VERSION = 1;
+
+    private final Path path;
+    private int pivots = 0;
+    private Duration interval = null;
+    private List<String> variables = List.of();
+
+    private int stepsSinceSave = 0;
+    private long lastSave = System.nanoTime();
+    private ExecutorService writer = null;
+    private Future<?> pending = null;
+    private Throwable failure = null;
+
+    // Writes snapshots to the given file.
+    public Checkpoint(Path path) {
+        this.path = path;
+    }
+
+    public Path path() { return path; }
+
+    // Takes a snapshot every given number of pivot steps. Zero disables it.
+    // Returns this to allow method chaining.
+    public Checkpoint setPivots(int value) {
+        pivots = value;
+        return this;
+    }
+
+    // Takes a snapshot once the given time has passed since the last one.
+    // Returns this to allow method chaining.
+    public Checkpoint setInterval(Duration value) {
+        interval = value;
+        return this;
+    }
+
+    // Names of the variables matching the coefficient columns, stored in
+    // the snapshot so that EquationSystem.resume can map the solution back.
+    void setVariables(List<String> value) {
+        variables = value;
+    }
+
+    // State of the elimination read back from a snapshot.
+    static class State {
+        Matrix.Method method;
+        Matrix.Normalization normalization;
+        int n;
+        int column;
+        int rank;
+        List<String> variables;
+        Matrix matrix;
+    }
+
+    // Called when a checkpointed solve starts, so that the counters left by
+    // an earlier solve don't make the first snapshot due early.
+    void start() {
+        stepsSinceSave = 0;
+        lastSave = System.nanoTime();
+        failure = null;
+    }
+
+    // Called before every pivot step, takes a snapshot if one is due.
+    void offer(Matrix aug, int n, int column, int rank,
+            Matrix.Method method, Matrix.Normalization normalization) {
+        ++stepsSinceSave;
+        boolean due = (pivots > 0 && stepsSinceSave >= pivots)
+            || (interval != null && System.nanoTime() - lastSave >= interval.toNanos());
+        if (!due || (pending != null && !pending.isDone())) {
+            return;
+        }
+        collect();
+        stepsSinceSave = 0;
+        lastSave = System.nanoTime();
+        var cells = new Rational[aug.height() * aug.width()];
+        for (int i = 0; i < aug.height(); ++i) {
+            for (int j = 0; j < aug.width(); ++j) {
+                cells[i * aug.width() + j] = aug.get(i, j);
+            }
+        }
+        int height = aug.height();
+        int width = aug.width();
+        var names = variables;
+        if (writer == null) {
+            writer = Executors.newSingleThreadExecutor(task -> {
+                var thread = new Thread(task, "gauss-checkpoint");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        pending = writer.submit(() -> {
+            write(method, normalization, n, column, rank, names, height, width, cells);
+            return null;
+        });
+    }
+
+    // Waits until the snapshot being written, if any, is on disk, and stops
+    // the writer thread. Called at the end of every checkpointed solve.
+    // Throws UncheckedIOException or IllegalStateException if the last
+    // snapshot couldn't be written.
+    public void await() {
+        try {
+            if (pending != null) {
+                pending.get();
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        catch (ExecutionException e) {
+            // Collected below.
+        }
+        if (writer != null) {
+            writer.shutdown();
+            writer = null;
+        }
+        collect();
+        if (failure != null) {
+            var cause = failure;
+            failure = null;
+            if (cause instanceof IOException) {
+                throw new UncheckedIOException((IOException)cause);
+            }
+            throw new IllegalStateException("Checkpoint failed", cause);
+        }
+    }
+
+    // Takes the outcome of the last snapshot once it's written: remembers
+    // why it failed, or forgets an earlier failure if it succeeded.
+    private void collect() {
+        if (pending == null || !pending.isDone()) {
+            return;
+        }
+        try {
+            pending.get();
+            failure = null;
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        catch (ExecutionException e) {
+            failure = e.getCause() != null ? e.getCause() : e;
+        }
+        pending = null;
+    }
+
+    private void write(Matrix.Method method, Matrix.Normalization normalization,
+            int n, int column, int rank, List<String> names,
+            int height, int width, Rational[] cells) throws IOException {
+        var dir = path.toAbsolutePath().getParent();
+        var tmp = Files.createTempFile(dir, path.getFileName().toString(), ".tmp");
+        try {
+            try (var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeByte(method.ordinal());
+                out.writeByte(normalization.ordinal());
+                out.writeInt(n);
+                out.writeInt(column);
+                out.writeInt(rank);
+                out.writeInt(height);
+                out.writeInt(width);
+                out.writeInt(names.size());
+                for (var name : names) {
+                    out.writeUTF(name);
+                }
+                for (var x : cells) {
+                    Wire.writeRational(out, x);
+                }
+            }
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        }
+        finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    // Reads a snapshot back. Files which don't describe a valid elimination
+    // state are rejected with an IOException.
+    static State load(Path file) throws IOException {
+        try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not a checkpoint file: " + file);
+            }
+            var state = new State();
+            int method = in.readUnsignedByte();
+            int normalization = in.readUnsignedByte();
+            if (method >= Matrix.Method.values().length
+                    || normalization >= Matrix.Normalization.values().length) {
+                throw new IOException("Invalid checkpoint");
+            }
+            state.method = Matrix.Method.values()[method];
+            state.normalization = Matrix.Normalization.values()[normalization];
+            state.n = in.readInt();
+            state.column = in.readInt();
+            state.rank = in.readInt();
+            int height = in.readInt();
+            int width = in.readInt();
+            int count = in.readInt();
+            if (height < 0 || width < 0 || (long)height * width > Integer.MAX_VALUE
+                    || state.n < 0 || state.n > width
+                    || state.column < 0 || state.column > state.n
+                    || state.rank < 0 || state.rank > Integer.min(state.column, height)
+                    || (count != 0 && count != state.n)) {
+                throw new IOException("Invalid checkpoint");
+            }
+            state.variables = new ArrayList<>();
+            for (int i = 0; i < count; ++i) {
+                state.variables.add(in.readUTF());
+            }
+            var cells = new Rational[height * width];
+            for (int i = 0; i < cells.length; ++i) {
+                cells[i] = Wire.readRational(in);
+            }
+            state.matrix = new Matrix(height, width, cells);
+            return state;
+        }
+    }
+}
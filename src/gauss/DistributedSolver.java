@@ -0,0 +1,230 @@
+package gauss;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+// Solves a system by spreading its modular images over Worker processes.
+//
+// The coordinator sends the sparse system to every worker once and then
+// hands out primes one at a time. Each worker answers with the solution
+// modulo its prime, computed as in WiedemannSolver, and the coordinator
+// combines the images by CRT until the lifted solution is stable and
+// satisfies the system. A prime assigned to a worker which fails is handed
+// to another one. A worker which doesn't connect or answer a task within
+// the timeout counts as failed. There's no timeout by default, as images of
+// large systems can take arbitrarily long on healthy workers, so only the
+// workers whose connection breaks count as failed. If every worker fails,
+// the remaining images are computed by the coordinator itself. Once the
+// solution is found, the connections to workers still busy with a task are
+// closed.
+public class DistributedSolver {
+    private final List<InetSocketAddress> workers = new ArrayList<>();
+    private long seed = new Random().nextLong();
+    private Duration timeout = Duration.ZERO;
+
+    // Uses workers listening on the given loopback ports.
+    public DistributedSolver(List<Integer> ports) {
+        for (var port : ports) {
+            workers.add(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        }
+    }
+
+    // Seeds the choice of primes and projections.
+    // Returns this to allow method chaining.
+    public DistributedSolver setSeed(long value) {
+        seed = value;
+        return this;
+    }
+
+    // Limits the time a worker may take to accept the connection and to
+    // answer each task. Zero means no limit.
+    // Returns this to allow method chaining.
+    public DistributedSolver setTimeout(Duration value) {
+        timeout = value;
+        return this;
+    }
+
+    // State of a single solve shared by the worker connections.
+    private static class Job {
+        final EquationSystem system;
+        final Map<String, Integer> index;
+        final WiedemannSolver.Sparse sparse;
+        final Random random;
+        final WiedemannSolver.Lift lift;
+        final ArrayDeque<Long> retry = new ArrayDeque<>();
+        final List<Socket> sockets = new ArrayList<>();
+        int unusable = 0;
+        boolean done = false;
+        Map<String, Rational> result = null;
+
+        Job(EquationSystem system, Map<String, Integer> index,
+                WiedemannSolver.Sparse sparse, Random random) {
+            this.system = system;
+            this.index = index;
+            this.sparse = sparse;
+            this.random = random;
+            this.lift = new WiedemannSolver.Lift(sparse.n);
+        }
+
+        // Next prime to compute an image for, or -1 once the job is done.
+        synchronized long next() {
+            if (done) {
+                return -1;
+            }
+            var p = retry.poll();
+            return p != null ? p : Modular.randomPrime(random);
+        }
+
+        synchronized long nextSeed() {
+            return random.nextLong();
+        }
+
+        // Returns a prime whose worker failed, so that another one takes it.
+        synchronized void fail(long p) {
+            retry.add(p);
+        }
+
+        // Accepts an image modulo p, null if the prime is unusable.
+        synchronized void accept(long p, long[] image) {
+            if (done) {
+                return;
+            }
+            if (image == null) {
+                if (++unusable >= WiedemannSolver.MAX_UNUSABLE_PRIMES) {
+                    finish();
+                }
+                return;
+            }
+            unusable = 0;
+            var lifted = lift.add(image, p);
+            if (lifted != null) {
+                result = WiedemannSolver.check(system, index, lifted);
+                if (result != null) {
+                    finish();
+                }
+            }
+        }
+
+        // Registers a worker connection, returns false if the job is done.
+        synchronized boolean open(Socket socket) {
+            if (done) {
+                return false;
+            }
+            sockets.add(socket);
+            return true;
+        }
+
+        // Marks the job done and unblocks the connections waiting for workers.
+        // Only their input is shut, so they can still tell workers to quit.
+        private void finish() {
+            done = true;
+            for (var socket : sockets) {
+                try {
+                    socket.shutdownInput();
+                }
+                catch (IOException e) {
+                    // Nothing left to read from it anyway.
+                }
+            }
+            sockets.clear();
+        }
+
+        // Computes images through a worker until the job is done.
+        void work(InetSocketAddress address, Duration timeout) {
+            long p = -1;
+            try (var socket = new Socket()) {
+                int millis = (int)Long.min(Integer.MAX_VALUE, timeout.toMillis());
+                socket.connect(address, millis);
+                socket.setSoTimeout(millis);
+                if (!open(socket)) {
+                    return;
+                }
+                var in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+                var out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+                Wire.writeSystem(out, sparse);
+                while ((p = next()) >= 0) {
+                    out.writeByte(Wire.TASK);
+                    out.writeLong(p);
+                    out.writeLong(nextSeed());
+                    out.flush();
+                    byte type = in.readByte();
+                    long[] image = null;
+                    if (type == Wire.IMAGE) {
+                        image = new long[sparse.n];
+                        for (int i = 0; i < image.length; ++i) {
+                            image[i] = in.readLong();
+                        }
+                    }
+                    else if (type != Wire.UNUSABLE) {
+                        throw new IOException("Unexpected message " + type);
+                    }
+                    accept(p, image);
+                    p = -1;
+                }
+                out.writeByte(Wire.QUIT);
+                out.flush();
+            }
+            catch (IOException e) {
+                if (p >= 0) {
+                    fail(p);
+                }
+            }
+        }
+
+        // Computes images locally until the job is done.
+        void work() {
+            long p;
+            while ((p = next()) >= 0) {
+                accept(p, WiedemannSolver.image(sparse, p, new Random(nextSeed())));
+            }
+        }
+    }
+
+    // Solves the equation system and returns map of variables in the solution.
+    // Systems which aren't square and nonsingular are solved locally by
+    // EquationSystem.solve.
+    public Solution<Map<String, Rational>> solve(EquationSystem system) {
+        var index = WiedemannSolver.variables(system);
+        if (index.size() != system.size() || index.isEmpty()) {
+            return system.solve();
+        }
+        var sparse = new WiedemannSolver.Sparse(system, index);
+        var random = new Random(seed);
+        if (!WiedemannSolver.nonsingular(sparse, random)) {
+            return system.solve();
+        }
+        var job = new Job(system, index, sparse, random);
+        var threads = new ArrayList<Thread>();
+        for (var address : workers) {
+            var thread = new Thread(() -> job.work(address, timeout), "gauss-coordinator");
+            thread.start();
+            threads.add(thread);
+        }
+        try {
+            for (var thread : threads) {
+                thread.join();
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted", e);
+        }
+        job.work();
+        if (job.result == null) {
+            return system.solve();
+        }
+        return Solution.unique(job.result);
+    }
+}
@@ -9,9 +9,55 @@ import java.util.stream.Stream;
 // Linear equation represented as
 //   a1*x1 + a2*x2 + ... + a_n*x_n + b = 0
 // Newly created equations are initialized with zeros.
+// Frozen equations are immutable and can be shared between threads.
 public class Equation implements Iterable<Equation.Entry> {
     private HashMap<String, Rational> variables = new HashMap<>();
     private Rational constant = Rational.ZERO;
+    private boolean frozen = false;
+    // Whether `variables` belongs to a frozen equation this was copied from.
+    private boolean shared = false;
+
+    private void checkMutable() {
+        if (frozen) {
+            throw new UnsupportedOperationException("Equation is frozen");
+        }
+    }
+
+    // Makes the equation immutable, further modifications throw
+    // UnsupportedOperationException. Returns this to allow method chaining.
+    public Equation freeze() {
+        frozen = true;
+        return this;
+    }
+
+    public boolean isFrozen() { return frozen; }
+
+    // Returns an immutable copy of the equation, or the equation itself
+    // if it's already frozen.
+    public Equation snapshot() {
+        if (frozen) {
+            return this;
+        }
+        var copy = new Equation();
+        copy.variables = new HashMap<>(variables);
+        copy.constant = constant;
+        return copy.freeze();
+    }
+
+    // Returns a mutable copy of the equation. Copies of a frozen equation
+    // share its coefficients until they are first modified.
+    public Equation copy() {
+        var copy = new Equation();
+        if (frozen) {
+            copy.variables = variables;
+            copy.shared = true;
+        }
+        else {
+            copy.variables = new HashMap<>(variables);
+        }
+        copy.constant = constant;
+        return copy;
+    }
 
     // Retrieves given variable's coefficient.
     public Rational get(String name) {
@@ -21,7 +67,12 @@ public class Equation implements Iterable<Equation.Entry> {
     // Sets given variable's coefficient.
     // Returns this to allow method chaining.
     public Equation set(String name, Rational value) {
-        if (value.equals(Rational.ZERO)) {
+        checkMutable();
+        if (shared) {
+            variables = new HashMap<>(variables);
+            shared = false;
+        }
+        if (value.isZero()) {
             variables.remove(name);
         }
         else {
@@ -38,6 +89,7 @@ public class Equation implements Iterable<Equation.Entry> {
     // Sets the constant coefficient.
     // Returns this to allow method chaining.
     public Equation setConst(Rational value) {
+        checkMutable();
         constant = value;
         return this;
     }
@@ -86,7 +138,7 @@ public class Equation implements Iterable<Equation.Entry> {
                 buf.append("+ ");
             }
             if (!val.abs().equals(new Rational(1))) {
-                buf.append(val.abs().toString());
+                val.abs().appendTo(buf);
             }
             buf.append(name);
             buf.append(" ");
@@ -97,7 +149,7 @@ public class Equation implements Iterable<Equation.Entry> {
         else if (buf.length() > 0) {
             buf.append("+ ");
         }
-        buf.append(constant.abs().toString());
+        constant.abs().appendTo(buf);
         buf.append(" = 0");
         return buf.toString();
     }
@@ -0,0 +1,119 @@
+package gauss;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Memoizing parser for inputs which repeat the same equations many times,
+// such as constraints shared by thousands of systems.
+//
+// Parsed equations are kept as frozen templates keyed by the input string,
+// so a repeated equation costs a hash lookup instead of a parse. Every
+// lookup returns a copy-on-write instance, which callers can modify without
+// affecting the template or other copies.
+//
+// The cache is bounded by the estimated memory of its templates. When it
+// grows past the bound, templates are evicted in insertion order, except
+// that ones looked up since the last pass get a second chance (the CLOCK
+// approximation of least recently used). Lookups don't take locks and the
+// cache can be shared between threads.
+public class EquationCache {
+    // Estimated bytes of the map entry and equation around a template, and
+    // of every coefficient on top of its digits.
+    private static final long ENTRY_OVERHEAD = 160;
+    private static final long COEFFICIENT_OVERHEAD = 96;
+
+    private static class Node {
+        final String input;
+        final Equation template;
+        final long weight;
+        volatile boolean used = false;
+
+        Node(String input, Equation template, long weight) {
+            this.input = input;
+            this.template = template;
+            this.weight = weight;
+        }
+    }
+
+    private final long maxWeight;
+    private final ConcurrentHashMap<String, Node> nodes = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Node> clock = new ConcurrentLinkedQueue<>();
+    private final AtomicLong weight = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    // Creates a cache holding templates of up to `maxWeight` estimated bytes.
+    public EquationCache(long maxWeight) {
+        if (maxWeight <= 0) {
+            throw new IllegalArgumentException("Cache weight must be positive");
+        }
+        this.maxWeight = maxWeight;
+    }
+
+    // Parses an equation like Equation.parse, reusing the template when the
+    // same input was parsed before. Inputs which fail to parse aren't cached.
+    public Equation parse(String input) {
+        var node = nodes.get(input);
+        if (node != null) {
+            node.used = true;
+            hits.increment();
+            return node.template.copy();
+        }
+        misses.increment();
+        var template = Equation.parse(input).freeze();
+        long w = weigh(input, template);
+        if (w > maxWeight) {
+            return template.copy();
+        }
+        node = new Node(input, template, w);
+        var previous = nodes.putIfAbsent(input, node);
+        if (previous != null) {
+            return previous.template.copy();
+        }
+        clock.add(node);
+        if (weight.addAndGet(w) > maxWeight) {
+            evict();
+        }
+        return template.copy();
+    }
+
+    private synchronized void evict() {
+        Node node;
+        while (weight.get() > maxWeight && (node = clock.poll()) != null) {
+            if (node.used) {
+                node.used = false;
+                clock.add(node);
+                continue;
+            }
+            nodes.remove(node.input, node);
+            weight.addAndGet(-node.weight);
+        }
+    }
+
+    // Estimated memory taken by a template and its key.
+    private static long weigh(String input, Equation template) {
+        long w = ENTRY_OVERHEAD + 2L * input.length() + bytes(template.getConst());
+        for (var x : template) {
+            w += COEFFICIENT_OVERHEAD + 2L * x.getName().length() + bytes(x.getValue());
+        }
+        return w;
+    }
+
+    private static long bytes(Rational x) {
+        return (x.numerator().bitLength() + x.denominator().bitLength()) / 8;
+    }
+
+    // Number of cached templates.
+    public int size() { return nodes.size(); }
+
+    // Estimated memory taken by the cached templates in bytes.
+    public long weight() { return weight.get(); }
+
+    // Number of lookups answered from the cache.
+    public long hits() { return hits.sum(); }
+
+    // Number of lookups which had to parse the input.
+    public long misses() { return misses.sum(); }
+}
@@ -1,16 +1,29 @@
 package gauss;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.stream.Stream;
 
 // An ordered collection of equations.
 // Newly created systems are empty.
 public class EquationSystem implements Iterable<Equation> {
-    private ArrayList<Equation> equations = new ArrayList<>();
+    private List<Equation> equations;
+
+    public EquationSystem() {
+        equations = new ArrayList<>();
+    }
+
+    // Wraps a list of equations without copying it. Used for immutable
+    // snapshots, whose modification throws UnsupportedOperationException.
+    EquationSystem(List<Equation> equations) {
+        this.equations = equations;
+    }
 
     // Number of equations in the system.
     public int size() { return equations.size(); }
@@ -38,6 +51,13 @@ public class EquationSystem implements Iterable<Equation> {
 
     // Solves the equation system and returns map of variables in the solution.
     public Solution<Map<String, Rational>> solve() {
+        return solve(new Budget());
+    }
+
+    // Solves the equation system within the given budget and returns map of
+    // variables in the solution. Throws Budget.ExceededException when any of
+    // the budget's limits is hit.
+    public Solution<Map<String, Rational>> solve(Budget budget) {
         var variableSet = new HashSet<String>();
         for (var eq : equations) {
             for (var x : eq) {
@@ -51,7 +71,28 @@ public class EquationSystem implements Iterable<Equation> {
         var b = new Matrix(size(), 1, (i, j) -> {
             return get(i).getConst().neg();
         });
-        var x = a.solve(b);
+        if (budget.getCheckpoint() != null) {
+            budget.getCheckpoint().setVariables(variables);
+        }
+        return assign(variables, a.solve(b, Matrix.Method.GAUSS_JORDAN, budget));
+    }
+
+    // Resumes a solve from the snapshot written by a Checkpoint attached to
+    // solve(Budget), and returns map of variables in the solution.
+    public static Solution<Map<String, Rational>> resume(Path file, Budget budget)
+            throws IOException {
+        var state = Checkpoint.load(file);
+        if (state.variables.isEmpty()) {
+            throw new IllegalArgumentException("Checkpoint has no variables: " + file);
+        }
+        if (budget.getCheckpoint() != null) {
+            budget.getCheckpoint().setVariables(state.variables);
+        }
+        return assign(state.variables, Matrix.resume(state, budget));
+    }
+
+    private static Solution<Map<String, Rational>> assign(List<String> variables,
+            Solution<Matrix> x) {
         return x.map(mat -> {
             var map = new HashMap<String, Rational>();
             for (int i = 0; i < variables.size(); ++i) {
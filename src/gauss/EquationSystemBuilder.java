@@ -0,0 +1,107 @@
+package gauss;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Collects equations from many threads at once and hands out immutable
+// snapshots of the system collected so far.
+//
+// Equations are appended to fixed size segments without locking: every
+// add reserves a slot with an atomic counter and fills it. The published
+// count is the length of the prefix of filled slots. After filling its
+// slot, a producer moves the count past every filled slot it finds, so
+// whoever fills the last gap publishes the slots behind it, and producers
+// never wait for each other. Slots are never written twice, so a snapshot
+// is just the segment directory together with the published count, and
+// solvers can read it without copying or locking while more equations
+// arrive. Only allocating a new segment takes a lock.
+public class EquationSystemBuilder {
+    private static final int SHIFT = 10;
+    private static final int SEGMENT = 1 << SHIFT;
+
+    private volatile AtomicReferenceArray<Equation>[] directory = newDirectory(4);
+    private final AtomicInteger reserved = new AtomicInteger();
+    private final AtomicInteger published = new AtomicInteger();
+
+    @SuppressWarnings("unchecked")
+    private static AtomicReferenceArray<Equation>[] newDirectory(int size) {
+        return (AtomicReferenceArray<Equation>[])new AtomicReferenceArray<?>[size];
+    }
+
+    // Number of equations published so far.
+    public int size() {
+        return published.get();
+    }
+
+    // Appends an equation. The builder keeps an immutable snapshot of it,
+    // so frozen equations are stored without copying.
+    public void add(Equation eq) {
+        var frozen = eq.snapshot();
+        int i = reserved.getAndIncrement();
+        if (i < 0) {
+            throw new IllegalStateException("Too many equations");
+        }
+        segment(i >> SHIFT).set(i & (SEGMENT - 1), frozen);
+        advance();
+    }
+
+    // Moves the published count past the filled slots following it.
+    private void advance() {
+        int p = published.get();
+        while (filled(p)) {
+            if (published.compareAndSet(p, p + 1)) {
+                ++p;
+            }
+            else {
+                p = published.get();
+            }
+        }
+    }
+
+    private boolean filled(int i) {
+        var segments = directory;
+        int index = i >> SHIFT;
+        return index < segments.length && segments[index] != null
+            && segments[index].get(i & (SEGMENT - 1)) != null;
+    }
+
+    // Immutable view of the equations published so far.
+    public EquationSystem snapshot() {
+        int size = published.get();
+        var segments = directory;
+        return new EquationSystem(new AbstractList<Equation>() {
+            @Override
+            public Equation get(int i) {
+                if (i < 0 || i >= size) {
+                    throw new IndexOutOfBoundsException(i);
+                }
+                return segments[i >> SHIFT].get(i & (SEGMENT - 1));
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        });
+    }
+
+    private AtomicReferenceArray<Equation> segment(int index) {
+        var segments = directory;
+        if (index < segments.length && segments[index] != null) {
+            return segments[index];
+        }
+        synchronized (this) {
+            segments = directory;
+            if (index >= segments.length) {
+                segments = Arrays.copyOf(segments, Integer.max(segments.length * 2, index + 1));
+            }
+            if (segments[index] == null) {
+                segments[index] = new AtomicReferenceArray<>(SEGMENT);
+            }
+            directory = segments;
+            return segments[index];
+        }
+    }
+}
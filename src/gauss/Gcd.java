@@ -0,0 +1,231 @@
+package gauss;
+
+import java.math.BigInteger;
+
+// Greatest common divisor for the normalization of rationals.
+//
+// BigInteger.gcd runs Euclid's algorithm, which is quadratic in the operand
+// size and dominates the cost of arithmetic once coefficients grow to many
+// thousands of bits. Above THRESHOLD bits this uses the half-gcd algorithm
+// instead: the top halves of the operands determine the first half of the
+// quotient sequence, which is found recursively and applied to the full
+// numbers as a single matrix of cofactors. With the JDK's subquadratic
+// multiplication this takes O(M(n) log n). The base case runs Lehmer's
+// algorithm, which finds a run of quotients from the leading 62 bits.
+//
+// Cases where the gcd is known up front, when one side is zero, 1 or a
+// power of two, skip the computation altogether.
+final class Gcd {
+    // Operand size in bits from which the half-gcd beats BigInteger.gcd.
+    static final int THRESHOLD = 4096;
+    // Size in bits below which the half-gcd runs Lehmer steps directly.
+    private static final int BASE = 1024;
+
+    private Gcd() {}
+
+    // Greatest common divisor of |a| and |b|, zero if both are zero.
+    static BigInteger gcd(BigInteger a, BigInteger b) {
+        a = a.abs();
+        b = b.abs();
+        if (a.signum() == 0 || b.signum() == 0) {
+            return a.signum() == 0 ? b : a;
+        }
+        if (a.equals(BigInteger.ONE) || b.equals(BigInteger.ONE)) {
+            return BigInteger.ONE;
+        }
+        int za = a.getLowestSetBit();
+        int zb = b.getLowestSetBit();
+        int twos = Integer.min(za, zb);
+        if (a.bitLength() == za + 1 || b.bitLength() == zb + 1) {
+            return BigInteger.ONE.shiftLeft(twos);
+        }
+        if (Integer.min(a.bitLength(), b.bitLength()) < THRESHOLD) {
+            return a.gcd(b);
+        }
+        return halfGcdLoop(a.shiftRight(za), b.shiftRight(zb)).shiftLeft(twos);
+    }
+
+    private static BigInteger halfGcdLoop(BigInteger a, BigInteger b) {
+        while (true) {
+            if (a.compareTo(b) < 0) {
+                var t = a;
+                a = b;
+                b = t;
+            }
+            if (b.bitLength() < THRESHOLD) {
+                return a.gcd(b);
+            }
+            var r = halfGcd(a, b);
+            if (r.b.signum() == 0) {
+                return r.a;
+            }
+            // One division step past the half, which also makes progress
+            // when the operands are too unbalanced for the half-gcd.
+            a = r.b;
+            b = r.a.mod(r.b);
+        }
+    }
+
+    // Matrix M of cofactors together with the pair (a, b) it reduced, such
+    // that the original pair equals M (a, b). M is a product of quotient
+    // matrices [[q, 1], [1, 0]], so its entries are nonnegative.
+    static final class Reduction {
+        BigInteger m00 = BigInteger.ONE;
+        BigInteger m01 = BigInteger.ZERO;
+        BigInteger m10 = BigInteger.ZERO;
+        BigInteger m11 = BigInteger.ONE;
+        // Determinant of M, which is 1 or -1.
+        int det = 1;
+        BigInteger a;
+        BigInteger b;
+        boolean identity = true;
+
+        Reduction(BigInteger a, BigInteger b) {
+            this.a = a;
+            this.b = b;
+        }
+
+        // Multiplies M on the right by [[n00, n01], [n10, n11]].
+        private void multiply(BigInteger n00, BigInteger n01, BigInteger n10, BigInteger n11) {
+            var r00 = m00.multiply(n00).add(m01.multiply(n10));
+            var r01 = m00.multiply(n01).add(m01.multiply(n11));
+            var r10 = m10.multiply(n00).add(m11.multiply(n10));
+            var r11 = m10.multiply(n01).add(m11.multiply(n11));
+            m00 = r00;
+            m01 = r01;
+            m10 = r10;
+            m11 = r11;
+            identity = false;
+        }
+
+        // Applies a reduction found for truncated operands to the pair.
+        // The low bits can make its last quotients wrong, in which case the
+        // pair wouldn't stay ordered and nonnegative and nothing is applied.
+        boolean apply(Reduction r) {
+            if (r.identity) {
+                return false;
+            }
+            var na = r.m11.multiply(a).subtract(r.m01.multiply(b));
+            var nb = r.m00.multiply(b).subtract(r.m10.multiply(a));
+            if (r.det < 0) {
+                na = na.negate();
+                nb = nb.negate();
+            }
+            if (nb.signum() < 0 || na.compareTo(nb) <= 0) {
+                return false;
+            }
+            multiply(r.m00, r.m01, r.m10, r.m11);
+            det *= r.det;
+            a = na;
+            b = nb;
+            return true;
+        }
+
+        // Single Euclidean division step.
+        void step() {
+            var qr = a.divideAndRemainder(b);
+            multiply(qr[0], BigInteger.ONE, BigInteger.ONE, BigInteger.ZERO);
+            det = -det;
+            a = b;
+            b = qr[1];
+        }
+
+        // Lehmer step: runs Euclid's algorithm on the leading 62 bits for as
+        // long as the quotients provably match the full operands' ones and
+        // the remainder stays well above 2^s. Falls back to a division step
+        // when no quotient can be found this way.
+        void lehmer(int s) {
+            int shift = a.bitLength() - 62;
+            long limit = 1L << 32;
+            if (s - shift + 1 >= 61 || shift <= 0) {
+                step();
+                return;
+            }
+            if (s + 1 > shift) {
+                limit += 1L << (s - shift + 1);
+            }
+            long x = a.shiftRight(shift).longValue();
+            long y = b.shiftRight(shift).longValue();
+            long u0 = 1, u1 = 0, v0 = 0, v1 = 1;
+            boolean even = true;
+            while (y + v0 != 0 && y + v1 != 0) {
+                long q = (x + u0) / (y + v0);
+                if (q != (x + u1) / (y + v1)) {
+                    break;
+                }
+                long r = x - q * y;
+                if (r < limit) {
+                    break;
+                }
+                long t = u0 - q * v0;
+                u0 = v0;
+                v0 = t;
+                t = u1 - q * v1;
+                u1 = v1;
+                v1 = t;
+                x = y;
+                y = r;
+                even = !even;
+            }
+            if (u1 == 0) {
+                step();
+                return;
+            }
+            // (a, b) becomes T (a, b) with T = [[u0, u1], [v0, v1]], so M is
+            // multiplied by the inverse of T.
+            var na = a.multiply(BigInteger.valueOf(u0)).add(b.multiply(BigInteger.valueOf(u1)));
+            var nb = a.multiply(BigInteger.valueOf(v0)).add(b.multiply(BigInteger.valueOf(v1)));
+            int sign = even ? 1 : -1;
+            multiply(BigInteger.valueOf(sign * v1), BigInteger.valueOf(-sign * u1),
+                BigInteger.valueOf(-sign * v0), BigInteger.valueOf(sign * u0));
+            det *= sign;
+            a = na;
+            b = nb;
+        }
+    }
+
+    // Reduces a > b >= 0 along their remainder sequence to the consecutive
+    // remainders a' >= 2^s > b', where s is about half the size of a.
+    static Reduction halfGcd(BigInteger a, BigInteger b) {
+        int n = a.bitLength();
+        int s = n / 2 + 1;
+        var r = new Reduction(a, b);
+        if (b.bitLength() <= s) {
+            return r;
+        }
+        if (n >= BASE) {
+            // The top halves reduce a and b to about three quarters...
+            int p = n / 2;
+            var a0 = a.shiftRight(p);
+            var b0 = b.shiftRight(p);
+            if (a0.compareTo(b0) > 0) {
+                r.apply(halfGcd(a0, b0));
+            }
+            if (r.b.bitLength() > s) {
+                r.step();
+            }
+            // ...and the top parts of what's left take them down to s bits.
+            while (r.b.bitLength() > s) {
+                int m = r.a.bitLength();
+                int q = 2 * s - m;
+                if (m - q < BASE) {
+                    break;
+                }
+                var a1 = r.a.shiftRight(q);
+                var b1 = r.b.shiftRight(q);
+                if (a1.compareTo(b1) <= 0 || !r.apply(halfGcd(a1, b1))) {
+                    break;
+                }
+            }
+        }
+        while (r.b.bitLength() > s) {
+            if (r.b.bitLength() > s + 64) {
+                r.lehmer(s);
+            }
+            else {
+                r.step();
+            }
+        }
+        return r;
+    }
+}
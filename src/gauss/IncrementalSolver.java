@@ -0,0 +1,142 @@
+package gauss;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Keeps the solution of a system up to date while single coefficients and
+// constants change.
+//
+// The inverse of a square nonsingular system is computed once. Changing a
+// constant then moves the solution along a column of the inverse in O(n),
+// and changing a coefficient is a rank-one update which is applied to the
+// inverse and the solution with the Sherman-Morrison formula in O(n^2).
+// Updates which make the matrix singular, introduce new variables, or hit
+// a system which isn't square and nonsingular in the first place, fall
+// back to solving the system from scratch.
+//
+// Changes must go through `set` and `setConst` of this class, which also
+// apply them to the equations. After modifying the system directly call
+// `refresh`.
+public class IncrementalSolver {
+    private final EquationSystem system;
+    private Map<String, Integer> index;
+    private Matrix inverse;
+    private Rational[] values;
+    private Solution<Map<String, Rational>> solution;
+
+    public IncrementalSolver(EquationSystem system) {
+        this.system = system;
+        refresh();
+    }
+
+    // Current solution of the system.
+    public Solution<Map<String, Rational>> solution() {
+        return solution;
+    }
+
+    // Solves the system from scratch and caches its inverse.
+    public Solution<Map<String, Rational>> refresh() {
+        index = new LinkedHashMap<>();
+        for (var eq : system) {
+            for (var x : eq) {
+                index.putIfAbsent(x.getName(), index.size());
+            }
+        }
+        inverse = null;
+        values = null;
+        int n = index.size();
+        if (n == system.size() && n > 0) {
+            var names = new ArrayList<>(index.keySet());
+            var a = new Matrix(n, n, (i, j) -> system.get(i).get(names.get(j)));
+            var identity = new Matrix(n, n, (i, j) -> i.equals(j) ? Rational.ONE : Rational.ZERO);
+            var inv = a.solve(identity, Matrix.Method.BACK_SUBSTITUTION,
+                Matrix.Normalization.ROWS, new Budget());
+            if (inv.isUnique()) {
+                inverse = inv.asUnique().get();
+                var b = new Rational[n];
+                for (int i = 0; i < n; ++i) {
+                    b[i] = system.get(i).getConst().neg();
+                }
+                values = inverse.multiplyVector(b);
+            }
+        }
+        solution = values != null ? Solution.unique(toMap()) : system.solve();
+        return solution;
+    }
+
+    // Sets the coefficient of a variable in the i-th equation and returns
+    // the updated solution.
+    public Solution<Map<String, Rational>> set(int i, String name, Rational value) {
+        var eq = system.get(i);
+        var delta = value.sub(eq.get(name));
+        eq.set(name, value);
+        var j = index.get(name);
+        if (delta.isZero()) {
+            return solution;
+        }
+        if (inverse == null || j == null) {
+            return refresh();
+        }
+        int n = values.length;
+        // A' = A + delta * e_i * e_j^T, so with u = A^-1 e_i and v = e_j^T A^-1
+        // A'^-1 = A^-1 - delta * u v / (1 + delta * v_i).
+        var denom = Rational.ONE.add(delta.mul(inverse.get(j, i)));
+        if (denom.isZero()) {
+            return refresh();
+        }
+        var u = new Rational[n];
+        var v = new Rational[n];
+        for (int k = 0; k < n; ++k) {
+            u[k] = inverse.get(k, i).mul(delta).div(denom);
+            v[k] = inverse.get(j, k);
+        }
+        var xj = values[j];
+        Matrix.range(n, (long)n * n, inverse).forEach(r -> {
+            if (u[r].isZero()) {
+                return;
+            }
+            var acc = new RationalAccumulator();
+            for (int c = 0; c < n; ++c) {
+                if (!v[c].isZero()) {
+                    inverse.set(r, c, acc.set(inverse.get(r, c)).subMul(u[r], v[c]).toRational());
+                }
+            }
+        });
+        var acc = new RationalAccumulator();
+        for (int k = 0; k < n; ++k) {
+            values[k] = acc.set(values[k]).subMul(u[k], xj).toRational();
+        }
+        solution = Solution.unique(toMap());
+        return solution;
+    }
+
+    // Sets the constant of the i-th equation and returns the updated solution.
+    public Solution<Map<String, Rational>> setConst(int i, Rational value) {
+        var eq = system.get(i);
+        var delta = eq.getConst().sub(value);
+        eq.setConst(value);
+        if (delta.isZero()) {
+            return solution;
+        }
+        if (inverse == null) {
+            return refresh();
+        }
+        // The right-hand side is the negated constant, so b' = b + delta * e_i.
+        var acc = new RationalAccumulator();
+        for (int k = 0; k < values.length; ++k) {
+            values[k] = acc.set(values[k]).addMul(inverse.get(k, i), delta).toRational();
+        }
+        solution = Solution.unique(toMap());
+        return solution;
+    }
+
+    private Map<String, Rational> toMap() {
+        var map = new HashMap<String, Rational>();
+        for (var entry : index.entrySet()) {
+            map.put(entry.getKey(), values[entry.getValue()]);
+        }
+        return map;
+    }
+}
@@ -1,40 +1,191 @@
 package gauss;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
 import java.lang.Void;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import java.util.stream.Stream;
 
 public class Main {
-    private static void run(String[] args) {
+    // Estimated memory of the parse cache shared by long-running modes.
+    private static final long PARSE_CACHE_BYTES = 64L << 20;
+
+    // Builds a system out of equations given as strings.
+    static EquationSystem parseSystem(Iterable<String> lines) {
+        return parseSystem(lines, null);
+    }
+
+    // Builds a system out of equations given as strings, reusing equations
+    // parsed before when a cache is given.
+    static EquationSystem parseSystem(Iterable<String> lines, EquationCache cache) {
         var system = new EquationSystem();
-        for (var arg : args) {
-            system.add(Equation.parse(arg));
+        for (var line : lines) {
+            system.add(cache != null ? cache.parse(line) : Equation.parse(line));
         }
-        var solution = system.solve();
+        return system;
+    }
+
+    // Reads equations one per line up to a blank line or EOF.
+    // Leading blank lines are skipped. Returns null when the input is exhausted.
+    static List<String> readSystem(BufferedReader in) throws IOException {
+        var lines = new ArrayList<String>();
+        String line;
+        while ((line = in.readLine()) != null) {
+            if (!line.isBlank()) {
+                lines.add(line);
+            }
+            else if (!lines.isEmpty()) {
+                break;
+            }
+        }
+        return lines.isEmpty() && line == null ? null : lines;
+    }
+
+    // Appends the solution in a human readable form to the buffer.
+    // Variables are listed in lexicographic order.
+    static void format(Solution<Map<String, Rational>> solution, StringBuilder buf) {
         solution.accept(new Solution.Visitor<>() {
             public Void visit(Solution.None none) {
-                System.out.println("No solutions exist");
+                buf.append("No solutions exist\n");
                 return null;
             }
             public Void visit(Solution.Infinite inf) {
-                System.out.println("Infinitely many solutions");
+                buf.append("Infinitely many solutions\n");
                 return null;
             }
             public Void visit(Solution.Unique<Map<String, Rational>> uniq) {
-                System.out.println("Unique solution:");
-                uniq.get()
-                    .entrySet()
-                    .stream()
-                    .sorted((x, y) -> x.getKey().compareTo(y.getKey()))
-                    .forEach(x -> System.out.println(x.getKey() + " = " + x.getValue()));
+                var map = uniq.get();
+                var names = map.keySet().toArray(new String[0]);
+                Arrays.sort(names);
+                buf.append("Unique solution:\n");
+                for (var name : names) {
+                    buf.append(name).append(" = ");
+                    map.get(name).appendTo(buf);
+                    buf.append('\n');
+                }
                 return null;
             }
         });
     }
 
+    // Solves a system given as equation strings and returns the formatted
+    // solution. Errors are reported as a single `Error: ...` line.
+    static String answer(List<String> lines) {
+        return answer(lines, null);
+    }
+
+    // Like answer(lines), parsing through the cache when one is given.
+    static String answer(List<String> lines, EquationCache cache) {
+        var buf = new StringBuilder();
+        try {
+            format(parseSystem(lines, cache).solve(), buf);
+        }
+        catch (RuntimeException e) {
+            buf.setLength(0);
+            buf.append("Error: ").append(e.getMessage()).append('\n');
+        }
+        return buf.toString();
+    }
+
+    private static void run(String[] args) {
+        var buf = new StringBuilder();
+        format(parseSystem(Arrays.asList(args)).solve(), buf);
+        System.out.print(buf);
+        System.out.flush();
+    }
+
+    // Parses `--server PORT [THREADS [QUEUE [CONNECTIONS]]]` and runs the server until killed.
+    private static void serve(String[] args) throws IOException {
+        if (args.length < 2) {
+            throw new IllegalArgumentException("Usage: --server PORT [THREADS [QUEUE [CONNECTIONS]]]");
+        }
+        int port = Integer.parseInt(args[1]);
+        int threads = args.length > 2
+            ? Integer.parseInt(args[2])
+            : Runtime.getRuntime().availableProcessors();
+        int queue = args.length > 3 ? Integer.parseInt(args[3]) : 1024;
+        int connections = args.length > 4
+            ? Integer.parseInt(args[4])
+            : Server.DEFAULT_CONNECTIONS;
+        try (var server = new Server(port, threads, queue, connections)) {
+            server.setCache(new EquationCache(PARSE_CACHE_BYTES));
+            System.err.println("Listening on port " + server.port());
+            server.serve();
+        }
+    }
+
+    // Parses `--batch [FILE [THREADS]]` and solves every system in the file.
+    // Standard input is used when FILE is missing or `-`.
+    private static void batch(String[] args) throws IOException {
+        var file = args.length > 1 ? args[1] : "-";
+        int threads = args.length > 2
+            ? Integer.parseInt(args[2])
+            : Runtime.getRuntime().availableProcessors();
+        var in = file.equals("-")
+            ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+            : Files.newBufferedReader(Path.of(file), StandardCharsets.UTF_8);
+        var out = new BufferedWriter(
+            new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16);
+        try (in) {
+            Batch.run(in, out, threads, new EquationCache(PARSE_CACHE_BYTES));
+        }
+        out.flush();
+    }
+
+    // Parses `--worker PORT` and runs a worker until killed.
+    private static void work(String[] args) throws IOException {
+        if (args.length < 2) {
+            throw new IllegalArgumentException("Usage: --worker PORT");
+        }
+        try (var worker = new Worker(Integer.parseInt(args[1]))) {
+            System.err.println("Worker listening on port " + worker.port());
+            worker.serve();
+        }
+    }
+
+    // Parses `--coordinator PORT[,PORT...] EQUATION...` and solves the
+    // equations using workers on the given ports.
+    private static void coordinate(String[] args) {
+        if (args.length < 2) {
+            throw new IllegalArgumentException("Usage: --coordinator PORT[,PORT...] EQUATION...");
+        }
+        var ports = new ArrayList<Integer>();
+        for (var port : args[1].split(",")) {
+            ports.add(Integer.parseInt(port.trim()));
+        }
+        var system = parseSystem(Arrays.asList(args).subList(2, args.length));
+        var buf = new StringBuilder();
+        format(new DistributedSolver(ports).solve(system), buf);
+        System.out.print(buf);
+        System.out.flush();
+    }
+
     public static void main(String[] args) {
         try {
-            run(args);
+            if (args.length > 0 && args[0].equals("--server")) {
+                serve(args);
+            }
+            else if (args.length > 0 && args[0].equals("--batch")) {
+                batch(args);
+            }
+            else if (args.length > 0 && args[0].equals("--worker")) {
+                work(args);
+            }
+            else if (args.length > 0 && args[0].equals("--coordinator")) {
+                coordinate(args);
+            }
+            else {
+                run(args);
+            }
         }
         catch (Exception e) {
             System.err.println(e.getMessage());
@@ -0,0 +1,351 @@
+package gauss;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.BiFunction;
+
+// Matrix whose rows are stored in a memory-mapped file instead of the heap.
+//
+// Every row is serialized into its own slot of the file. At most `window`
+// rows are kept on heap at a time, evicting the least recently used ones,
+// so elimination streams the rows through a bounded heap window. Modified
+// rows are written back when evicted or on `flush`. A row which outgrows
+// its slot is moved to a free slot left behind by another row, or to a
+// new one at the end of the file. Free slots are split to the size the row
+// needs and merged with free neighbours in the same segment.
+//
+// The file is mapped in segments which start small and double in size up
+// to 256 MiB, so it grows with the data. A single serialized row must fit
+// in one segment.
+//
+// Attaching a Checkpoint to the solve defeats the bounded window: every
+// snapshot copies references to all the cells, loading every row on heap.
+public class MappedMatrix extends Matrix implements Closeable {
+    private static final int MIN_SEGMENT = 1 << 16;
+    private static final int MAX_SEGMENT = 1 << 28;
+    // Smallest remainder worth splitting off a free slot.
+    private static final int MIN_SLOT = 64;
+
+    private final Path path;
+    private final boolean temporary;
+    private final FileChannel channel;
+    private final ArrayList<MappedByteBuffer> segments = new ArrayList<>();
+    private final ArrayList<Long> starts = new ArrayList<>();
+    private long mapped = 0;
+    private long end = 0;
+    // Offsets of free slots by their capacity, and the same slots by offset.
+    private final TreeMap<Integer, TreeSet<Long>> free = new TreeMap<>();
+    private final TreeMap<Long, Integer> freeAt = new TreeMap<>();
+    private final long[] offsets;
+    private final int[] capacities;
+
+    private final int window;
+    private final LinkedHashMap<Integer, Rational[]> rows;
+    private final HashSet<Integer> dirty = new HashSet<>();
+
+    // Creates a matrix backed by the given file, which is overwritten.
+    // Seed works like in the Matrix constructor. At most `window` rows
+    // are kept on heap at once.
+    public MappedMatrix(Path file, int height_, int width_,
+            BiFunction<Integer, Integer, Rational> seed, int window) throws IOException {
+        this(file, false, height_, width_, seed, window);
+    }
+
+    private MappedMatrix(Path file, boolean temporary, int height_, int width_,
+            BiFunction<Integer, Integer, Rational> seed, int window) throws IOException {
+        super(height_, width_);
+        if (window < 2) {
+            throw new IllegalArgumentException("Window must hold at least two rows");
+        }
+        this.path = file;
+        this.temporary = temporary;
+        this.window = window;
+        channel = FileChannel.open(file, StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+        offsets = new long[height_];
+        capacities = new int[height_];
+        rows = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Rational[]> eldest) {
+                if (size() <= MappedMatrix.this.window) {
+                    return false;
+                }
+                writeBack(eldest.getKey(), eldest.getValue());
+                return true;
+            }
+        };
+        var row = new Rational[width_];
+        for (int i = 0; i < height_; ++i) {
+            for (int j = 0; j < width_; ++j) {
+                row[j] = seed.apply(i, j);
+            }
+            store(i, serialize(row));
+        }
+    }
+
+    // File the matrix is stored in.
+    public Path path() { return path; }
+
+    @Override
+    public Rational get(int row, int col) {
+        return row(row)[col];
+    }
+
+    @Override
+    public void set(int row, int col, Rational val) {
+        row(row)[col] = val;
+        dirty.add(row);
+    }
+
+    // The row window is modified by every read.
+    @Override
+    boolean concurrentReads() {
+        return false;
+    }
+
+    // Swaps the slots of two rows, without touching the file.
+    @Override
+    void swapRows(int a, int b) {
+        if (a == b) {
+            return;
+        }
+        var ra = rows.remove(a);
+        var rb = rows.remove(b);
+        if (rb != null) {
+            rows.put(a, rb);
+        }
+        if (ra != null) {
+            rows.put(b, ra);
+        }
+        boolean da = dirty.remove(a);
+        boolean db = dirty.remove(b);
+        if (db) {
+            dirty.add(a);
+        }
+        if (da) {
+            dirty.add(b);
+        }
+        long offset = offsets[a];
+        offsets[a] = offsets[b];
+        offsets[b] = offset;
+        int capacity = capacities[a];
+        capacities[a] = capacities[b];
+        capacities[b] = capacity;
+    }
+
+    // Solves `this * x = y` by building the augmented matrix in a temporary
+    // file next to this one, so the heap holds only the row window.
+    @Override
+    public Solution<Matrix> solve(Matrix y, Method method, Normalization normalization,
+            Budget budget) {
+        if (height() != y.height()) {
+            throw new IllegalArgumentException("Matrix heights don't match");
+        }
+        int n = width();
+        try {
+            var file = Files.createTempFile(path.toAbsolutePath().getParent(), "gauss", ".aug");
+            try (var aug = new MappedMatrix(file, true, height(), n + y.width(), (i, j) -> {
+                return j < n ? get(i, j) : y.get(i, j - n);
+            }, window)) {
+                return aug.solveInPlace(n, method, normalization, budget);
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Writes all modified rows back to the file.
+    public void flush() {
+        for (var i : dirty) {
+            var row = rows.get(i);
+            if (row != null) {
+                store(i, serialize(row));
+            }
+        }
+        dirty.clear();
+    }
+
+    // Flushes the matrix and closes the file. Temporary files are deleted.
+    @Override
+    public void close() throws IOException {
+        if (!temporary) {
+            flush();
+            for (var segment : segments) {
+                segment.force();
+            }
+        }
+        rows.clear();
+        segments.clear();
+        channel.close();
+        if (temporary) {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    private Rational[] row(int i) {
+        var row = rows.get(i);
+        if (row == null) {
+            row = load(i);
+            rows.put(i, row);
+        }
+        return row;
+    }
+
+    private void writeBack(int i, Rational[] row) {
+        if (dirty.remove(i)) {
+            store(i, serialize(row));
+        }
+    }
+
+    private ByteBuffer segment(long offset) {
+        int index = Collections.binarySearch(starts, offset);
+        if (index < 0) {
+            index = -index - 2;
+        }
+        return segments.get(index).duplicate().position((int)(offset - starts.get(index)));
+    }
+
+    // End of the space handed out to slots so far.
+    long allocated() {
+        return end;
+    }
+
+    private Rational[] load(int i) {
+        var buf = segment(offsets[i]);
+        var row = new Rational[width()];
+        for (int j = 0; j < row.length; ++j) {
+            var p = readBig(buf);
+            var q = readBig(buf);
+            row[j] = Rational.ofReduced(p, q);
+        }
+        return row;
+    }
+
+    // Writes a serialized row into its slot, moving it to another slot
+    // if it doesn't fit anymore.
+    private void store(int i, byte[] data) {
+        if (data.length > capacities[i]) {
+            if (capacities[i] > 0) {
+                release(offsets[i], capacities[i]);
+            }
+            allocate(i, data.length);
+        }
+        segment(offsets[i]).put(data);
+    }
+
+    // Finds a slot for at least `size` bytes for the row, with room to grow:
+    // the front of the smallest free one which fits, or a new one at the end
+    // of the file.
+    private void allocate(int i, int size) {
+        int capacity = (int)Long.min(MAX_SEGMENT, size + size / 2L);
+        if (size > capacity) {
+            throw new IllegalStateException("Row " + i + " is too large for mapped storage");
+        }
+        var slot = free.ceilingEntry(size);
+        if (slot != null) {
+            long offset = slot.getValue().first();
+            int available = slot.getKey();
+            take(offset, available);
+            if (available - capacity < MIN_SLOT) {
+                capacity = available;
+            }
+            else {
+                release(offset + capacity, available - capacity);
+            }
+            offsets[i] = offset;
+            capacities[i] = capacity;
+            return;
+        }
+        if (end + capacity > mapped) {
+            if (mapped > end) {
+                release(end, (int)(mapped - end));
+            }
+            long length = Long.max(capacity, Long.min(MAX_SEGMENT, Long.max(MIN_SEGMENT, mapped)));
+            try {
+                segments.add(channel.map(FileChannel.MapMode.READ_WRITE, mapped, length));
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            starts.add(mapped);
+            end = mapped;
+            mapped += length;
+        }
+        offsets[i] = end;
+        capacities[i] = capacity;
+        end += capacity;
+    }
+
+    // Returns a slot to the free ones, merged with the free slots right
+    // before and after it. Slots never span two segments.
+    private void release(long offset, int capacity) {
+        var before = freeAt.lowerEntry(offset);
+        if (before != null && before.getKey() + before.getValue() == offset
+                && !segmentStart(offset)) {
+            take(before.getKey(), before.getValue());
+            offset = before.getKey();
+            capacity += before.getValue();
+        }
+        var after = freeAt.get(offset + capacity);
+        if (after != null && !segmentStart(offset + capacity)) {
+            take(offset + capacity, after);
+            capacity += after;
+        }
+        free.computeIfAbsent(capacity, c -> new TreeSet<>()).add(offset);
+        freeAt.put(offset, capacity);
+    }
+
+    private void take(long offset, int capacity) {
+        var slots = free.get(capacity);
+        slots.remove(offset);
+        if (slots.isEmpty()) {
+            free.remove(capacity);
+        }
+        freeAt.remove(offset);
+    }
+
+    private boolean segmentStart(long offset) {
+        return Collections.binarySearch(starts, offset) >= 0;
+    }
+
+    private static byte[] serialize(Rational[] row) {
+        int size = 0;
+        var parts = new byte[2 * row.length][];
+        for (int j = 0; j < row.length; ++j) {
+            parts[2*j] = row[j].numerator().toByteArray();
+            parts[2*j + 1] = row[j].denominator().toByteArray();
+        }
+        for (var part : parts) {
+            size += Integer.BYTES + part.length;
+        }
+        var buf = ByteBuffer.allocate(size);
+        for (var part : parts) {
+            buf.putInt(part.length);
+            buf.put(part);
+        }
+        return buf.array();
+    }
+
+    private static BigInteger readBig(ByteBuffer buf) {
+        var bytes = new byte[buf.getInt()];
+        buf.get(bytes);
+        return new BigInteger(bytes);
+    }
+}
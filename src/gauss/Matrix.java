@@ -1,8 +1,12 @@
 package gauss;
 
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Optional;
 import java.util.function.BiFunction;
+import java.util.stream.IntStream;
 
 // Matrix of rational numbers.
 public class Matrix {
@@ -32,6 +36,13 @@ public class Matrix {
         this(height_, width_, (i, j) -> data[i * width_ + j]);
     }
 
+    // Constructs a matrix without heap storage, for subclasses which
+    // keep the cells elsewhere and override `get` and `set`.
+    protected Matrix(int height_, int width_) {
+        this.height_ = height_;
+        this.width_ = width_;
+    }
+
     // Accesses the cell at (row, col).
     public Rational get(int row, int col) {
         return cells.get(row * width() + col);
@@ -42,7 +53,7 @@ public class Matrix {
         cells.set(row * width() + col, val);
     }
 
-    private void swapRows(int a, int b) {
+    void swapRows(int a, int b) {
         if (a != b) {
             for (int i = 0; i < width(); ++i) {
                 var tmp = get(a, i);
@@ -53,8 +64,59 @@ public class Matrix {
     }
 
     private void subtractRows(int a, int b, Rational ratio) {
+        var acc = new RationalAccumulator();
+        for (int i = 0; i < width(); ++i) {
+            var x = get(b, i);
+            if (!x.isZero()) {
+                set(a, i, acc.set(get(a, i)).subMul(x, ratio).toRational());
+            }
+        }
+    }
+
+    // Replaces row a with `pivot * a - factor * b`, where pivot and factor
+    // are the cells of rows b and a in column k. Unlike `subtractRows`
+    // this keeps integer rows integer.
+    private void combineRows(int a, int b, int k) {
+        var pivot = get(b, k);
+        var factor = get(a, k);
+        var acc = new RationalAccumulator();
         for (int i = 0; i < width(); ++i) {
-            set(a, i, get(a, i).sub(get(b, i).mul(ratio)));
+            var x = get(a, i);
+            var y = get(b, i);
+            if (!x.isZero() || !y.isZero()) {
+                set(a, i, acc.set(Rational.ZERO).addMul(pivot, x).subMul(factor, y).toRational());
+            }
+        }
+    }
+
+    // Rescales a row into a primitive integer vector by clearing the
+    // denominators and dividing out the gcd of the numerators. Rows of
+    // an augmented matrix can be scaled freely without changing the
+    // solutions, so the scale itself is dropped.
+    private void normalizeRow(int a) {
+        var lcm = BigInteger.ONE;
+        var gcd = BigInteger.ZERO;
+        for (int i = 0; i < width(); ++i) {
+            var x = get(a, i);
+            if (!x.isZero()) {
+                var den = x.denominator();
+                if (!den.equals(BigInteger.ONE)) {
+                    lcm = lcm.divide(Gcd.gcd(lcm, den)).multiply(den);
+                }
+                if (!gcd.equals(BigInteger.ONE)) {
+                    gcd = Gcd.gcd(gcd, x.numerator());
+                }
+            }
+        }
+        if (gcd.signum() == 0 || (gcd.equals(BigInteger.ONE) && lcm.equals(BigInteger.ONE))) {
+            return;
+        }
+        for (int i = 0; i < width(); ++i) {
+            var x = get(a, i);
+            if (!x.isZero()) {
+                var p = x.numerator().multiply(lcm.divide(x.denominator())).divide(gcd);
+                set(a, i, Rational.ofReduced(p, BigInteger.ONE));
+            }
         }
     }
 
@@ -64,9 +126,51 @@ public class Matrix {
         }
     }
 
+    // Elimination strategy used by `solve`.
+    public enum Method {
+        // Gauss-Jordan elimination, every row except the pivot row is reduced.
+        GAUSS_JORDAN,
+        // Forward elimination of rows below the pivot followed by
+        // back-substitution. Roughly a third of the row operations
+        // of Gauss-Jordan.
+        BACK_SUBSTITUTION,
+    }
+
+    // Treatment of the rows during elimination.
+    public enum Normalization {
+        // Cells are reduced fractions, rows are never rescaled.
+        NONE,
+        // Every updated row is rescaled into a primitive integer vector
+        // and rows are combined without division. This keeps cells near
+        // their minimal size and trades per-cell gcds for one per row.
+        ROWS,
+    }
+
     // Finds x in equation `this * x = y`.
     // Input matrices are not modified.
     public Solution<Matrix> solve(Matrix y) {
+        return solve(y, Method.GAUSS_JORDAN);
+    }
+
+    // Finds x in equation `this * x = y` using the given elimination method.
+    // Input matrices are not modified.
+    public Solution<Matrix> solve(Matrix y, Method method) {
+        return solve(y, method, new Budget());
+    }
+
+    // Finds x in equation `this * x = y` using the given elimination method.
+    // The budget is checked between pivot steps, and the solve is aborted
+    // with Budget.ExceededException once any of its limits is hit.
+    // Input matrices are not modified.
+    public Solution<Matrix> solve(Matrix y, Method method, Budget budget) {
+        return solve(y, method, Normalization.NONE, budget);
+    }
+
+    // Finds x in equation `this * x = y` using the given elimination method
+    // and row normalization, within the budget.
+    // Input matrices are not modified.
+    public Solution<Matrix> solve(Matrix y, Method method, Normalization normalization,
+            Budget budget) {
         if (height() != y.height()) {
             throw new IllegalArgumentException("Matrix heights don't match");
         }
@@ -74,30 +178,114 @@ public class Matrix {
         var aug = new Matrix(height(), n + y.width(), (i, j) -> {
             return j < n ? get(i, j) : y.get(i, j - n);
         });
-        int rank = 0;
-        for (int k = 0; k < n && rank < aug.height(); ++k) {
-            int max = rank;
-            for (int i = rank+1; i < aug.height(); ++i) {
-                if (aug.get(i, k).abs().compareTo(aug.get(max, k).abs()) > 0) {
-                    max = i;
-                }
-            }
-            if (aug.get(max, k).equals(Rational.ZERO)) {
-                continue;
+        return aug.solveInPlace(n, method, normalization, budget);
+    }
+
+    // Solves the system stored in this augmented matrix, whose first n
+    // columns hold the coefficients and the remaining ones the right-hand
+    // sides. Unlike `solve` this doesn't copy the input: the matrix is
+    // reduced in place and its contents are unspecified afterwards.
+    public Solution<Matrix> solveInPlace(int n) {
+        return solveInPlace(n, Method.GAUSS_JORDAN, Normalization.NONE, new Budget());
+    }
+
+    // Solves the system stored in this augmented matrix in place using
+    // the given elimination method, row normalization and budget.
+    // See `solveInPlace(int)`.
+    public Solution<Matrix> solveInPlace(int n, Method method, Normalization normalization,
+            Budget budget) {
+        if (n > width()) {
+            throw new IllegalArgumentException("Coefficient columns exceed matrix width");
+        }
+        if (normalization == Normalization.ROWS) {
+            for (int i = 0; i < height(); ++i) {
+                normalizeRow(i);
             }
-            aug.swapRows(max, k);
-            for (int i = 0; i < aug.height(); ++i) {
-                if (i == rank) {
+        }
+        return eliminate(n, method, normalization, budget, 0, 0);
+    }
+
+    // Resumes a solve from the snapshot written by a Checkpoint. The budget
+    // applies to the rest of the solve and may carry a checkpoint itself.
+    public static Solution<Matrix> resume(Path file, Budget budget) throws IOException {
+        return resume(Checkpoint.load(file), budget);
+    }
+
+    // Resumes a solve from a snapshot which was already loaded.
+    static Solution<Matrix> resume(Checkpoint.State state, Budget budget) {
+        return state.matrix.eliminate(state.n, state.method, state.normalization, budget,
+            state.column, state.rank);
+    }
+
+    // Eliminates columns from `start` on, with `rank` pivots found in the
+    // columns before it, and reads the solution.
+    private Solution<Matrix> eliminate(int n, Method method, Normalization normalization,
+            Budget budget, int start, int rank) {
+        boolean full = method == Method.GAUSS_JORDAN;
+        boolean normalize = normalization == Normalization.ROWS;
+        var checkpoint = budget.getCheckpoint();
+        if (checkpoint != null) {
+            checkpoint.start();
+        }
+        var usage = budget.track(this);
+        try {
+            for (int k = start; k < n && rank < height(); ++k) {
+                budget.check(usage, k, n);
+                if (checkpoint != null) {
+                    checkpoint.offer(this, n, k, rank, method, normalization);
+                }
+                int max = rank;
+                for (int i = rank+1; i < height(); ++i) {
+                    if (get(i, k).compareAbs(get(max, k)) > 0) {
+                        max = i;
+                    }
+                }
+                if (get(max, k).isZero()) {
                     continue;
                 }
-                var ratio = aug.get(i, k).div(aug.get(rank, k));
-                aug.subtractRows(i, rank, ratio);
+                swapRows(max, rank);
+                if (usage != null) {
+                    usage.swap(max, rank);
+                }
+                for (int i = full ? 0 : rank+1; i < height(); ++i) {
+                    if (i == rank || get(i, k).isZero()) {
+                        continue;
+                    }
+                    if (normalize) {
+                        combineRows(i, rank, k);
+                        normalizeRow(i);
+                    }
+                    else {
+                        var ratio = get(i, k).div(get(rank, k));
+                        subtractRows(i, rank, ratio);
+                    }
+                    if (usage != null) {
+                        usage.update(i);
+                    }
+                }
+                ++rank;
             }
-            ++rank;
         }
-        for (int i = rank; i < aug.height(); ++i) {
-            for (int j = n; j < aug.width(); ++j) {
-                if (!aug.get(i, j).equals(Rational.ZERO)) {
+        catch (RuntimeException | Error e) {
+            // Leaves a complete snapshot on disk even when the budget runs
+            // out, without hiding why the solve stopped.
+            if (checkpoint != null) {
+                try {
+                    checkpoint.await();
+                }
+                catch (RuntimeException suppressed) {
+                    e.addSuppressed(suppressed);
+                }
+            }
+            throw e;
+        }
+        if (checkpoint != null) {
+            checkpoint.await();
+        }
+        budget.check(usage, n, n);
+        for (int i = rank; i < height(); ++i) {
+            for (int j = n; j < width(); ++j) {
+                if (!get(i, j).isZero()) {
                     return Solution.none();
                 }
             }
@@ -105,16 +293,178 @@ public class Matrix {
         if (rank != n) {
             return Solution.infinite();
         }
-        for (int k = 0; k < n; ++k) {
-            var ratio = aug.get(k, k).inv();
-            aug.multiplyRow(k, ratio);
+        if (full) {
+            for (int k = 0; k < n; ++k) {
+                var ratio = get(k, k).inv();
+                multiplyRow(k, ratio);
+            }
+        }
+        else {
+            backSubstitute(n, budget);
         }
-        var result = new Matrix(n, y.width(), (i, j) -> {
-            return aug.get(i, n + j);
+        var result = new Matrix(n, width() - n, (i, j) -> {
+            return get(i, n + j);
         });
         return Solution.unique(result);
     }
 
+    // Solves an upper triangular system stored in the first n columns of an
+    // augmented matrix. Solutions replace the right-hand-side columns.
+    private void backSubstitute(int n, Budget budget) {
+        var acc = new RationalAccumulator();
+        for (int j = n; j < width(); ++j) {
+            budget.check(n, n);
+            for (int i = n-1; i >= 0; --i) {
+                acc.set(get(i, j));
+                for (int k = i+1; k < n; ++k) {
+                    acc.subMul(get(i, k), get(k, j));
+                }
+                set(i, j, acc.toRational().div(get(i, i)));
+            }
+        }
+    }
+
+    // Side of the square tiles processed by the kernels below.
+    private static final int BLOCK = 64;
+
+    // Cells per kernel below which running in parallel isn't worth it.
+    private static final long PARALLEL_THRESHOLD = 1 << 12;
+
+    // Whether `get` can be called from several threads at once.
+    boolean concurrentReads() {
+        return true;
+    }
+
+    // Range of indices to be processed by a kernel, run in parallel on the
+    // fork-join pool when the work is big enough and the matrices allow it.
+    static IntStream range(int n, long cells, Matrix... sources) {
+        var range = IntStream.range(0, n);
+        if (cells < PARALLEL_THRESHOLD) {
+            return range;
+        }
+        for (var m : sources) {
+            if (!m.concurrentReads()) {
+                return range;
+            }
+        }
+        return range.parallel();
+    }
+
+    // Transposed matrix.
+    public Matrix transpose() {
+        int h = height();
+        int w = width();
+        var data = new Rational[h * w];
+        int tiles = (h + BLOCK - 1) / BLOCK;
+        range(tiles, (long)h * w, this).forEach(t -> {
+            int i1 = Integer.min(h, (t + 1) * BLOCK);
+            for (int j0 = 0; j0 < w; j0 += BLOCK) {
+                int j1 = Integer.min(w, j0 + BLOCK);
+                for (int i = t * BLOCK; i < i1; ++i) {
+                    for (int j = j0; j < j1; ++j) {
+                        data[j * h + i] = get(i, j);
+                    }
+                }
+            }
+        });
+        return new Matrix(w, h, data);
+    }
+
+    // Matrix product `this * b`. Every cell is accumulated without
+    // normalization, so it costs one gcd instead of one per term.
+    public Matrix multiply(Matrix b) {
+        if (width() != b.height()) {
+            throw new IllegalArgumentException("Matrix dimensions don't match");
+        }
+        return product(b, null);
+    }
+
+    // Residual `this * x - y`, computed like `multiply` with the
+    // subtraction fused into the accumulation.
+    public Matrix residual(Matrix x, Matrix y) {
+        if (width() != x.height() || height() != y.height() || x.width() != y.width()) {
+            throw new IllegalArgumentException("Matrix dimensions don't match");
+        }
+        return product(x, y);
+    }
+
+    // Computes `this * b - c`, or `this * b` when c is null, tile by tile.
+    private Matrix product(Matrix b, Matrix c) {
+        int h = height();
+        int w = b.width();
+        int n = width();
+        var data = new Rational[h * w];
+        int rowTiles = (h + BLOCK - 1) / BLOCK;
+        int colTiles = (w + BLOCK - 1) / BLOCK;
+        var sources = c == null ? new Matrix[] {this, b} : new Matrix[] {this, b, c};
+        range(rowTiles * colTiles, (long)h * w * n, sources).forEach(t -> {
+            int i0 = t / colTiles * BLOCK;
+            int j0 = t % colTiles * BLOCK;
+            int i1 = Integer.min(h, i0 + BLOCK);
+            int j1 = Integer.min(w, j0 + BLOCK);
+            var acc = new RationalAccumulator[i1 - i0][j1 - j0];
+            for (int i = i0; i < i1; ++i) {
+                for (int j = j0; j < j1; ++j) {
+                    acc[i - i0][j - j0] = new RationalAccumulator();
+                    if (c != null) {
+                        acc[i - i0][j - j0].sub(c.get(i, j));
+                    }
+                }
+            }
+            for (int k0 = 0; k0 < n; k0 += BLOCK) {
+                int k1 = Integer.min(n, k0 + BLOCK);
+                for (int i = i0; i < i1; ++i) {
+                    for (int k = k0; k < k1; ++k) {
+                        var x = get(i, k);
+                        if (x.isZero()) {
+                            continue;
+                        }
+                        for (int j = j0; j < j1; ++j) {
+                            acc[i - i0][j - j0].addMul(x, b.get(k, j));
+                        }
+                    }
+                }
+            }
+            for (int i = i0; i < i1; ++i) {
+                for (int j = j0; j < j1; ++j) {
+                    data[i * w + j] = acc[i - i0][j - j0].toRational();
+                }
+            }
+        });
+        return new Matrix(h, w, data);
+    }
+
+    // Product of the matrix and a column vector.
+    public Rational[] multiplyVector(Rational... x) {
+        if (width() != x.length) {
+            throw new IllegalArgumentException("Vector length doesn't match matrix width");
+        }
+        var out = new Rational[height()];
+        range(height(), (long)height() * width(), this).forEach(i -> {
+            var acc = new RationalAccumulator();
+            for (int j = 0; j < x.length; ++j) {
+                acc.addMul(get(i, j), x[j]);
+            }
+            out[i] = acc.toRational();
+        });
+        return out;
+    }
+
+    // Difference of two matrices of the same size.
+    public Matrix subtract(Matrix b) {
+        if (height() != b.height() || width() != b.width()) {
+            throw new IllegalArgumentException("Matrix dimensions don't match");
+        }
+        int w = width();
+        var data = new Rational[height() * w];
+        range(height(), (long)height() * w, this, b).forEach(i -> {
+            for (int j = 0; j < w; ++j) {
+                data[i * w + j] = get(i, j).sub(b.get(i, j));
+            }
+        });
+        return new Matrix(height(), w, data);
+    }
+
     @Override
     public String toString() {
         var buf = new StringBuilder();
@@ -0,0 +1,49 @@
+package gauss;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+// Arithmetic modulo word-size primes shared by the modular algorithms.
+// Primes are below 2^31, so a product of two residues fits in a long.
+class Modular {
+    private Modular() {}
+
+    // Random prime of 31 bits.
+    static long randomPrime(Random random) {
+        return BigInteger.probablePrime(31, random).longValue();
+    }
+
+    // Non-negative remainder of a big integer modulo a word-size prime.
+    static long reduce(BigInteger x, long p) {
+        if (x.bitLength() < Long.SIZE) {
+            return Math.floorMod(x.longValue(), p);
+        }
+        return x.mod(BigInteger.valueOf(p)).longValue();
+    }
+
+    // Residue of a rational modulo a prime, or -1 if the prime
+    // divides the denominator.
+    static long reduce(Rational x, long p) {
+        long den = reduce(x.denominator(), p);
+        if (den == 0) {
+            return -1;
+        }
+        return reduce(x.numerator(), p) * inverse(den, p) % p;
+    }
+
+    // Modular inverse of a non-zero residue by the extended Euclid's algorithm.
+    static long inverse(long a, long p) {
+        long r0 = p, r1 = a;
+        long t0 = 0, t1 = 1;
+        while (r1 != 0) {
+            long q = r0 / r1;
+            long r = r0 - q * r1;
+            r0 = r1;
+            r1 = r;
+            long t = t0 - q * t1;
+            t0 = t1;
+            t1 = t;
+        }
+        return Math.floorMod(t0, p);
+    }
+}
@@ -1,8 +1,8 @@
 package gauss;
 
 import java.math.BigInteger;
+import java.util.ArrayList;
 import java.util.Objects;
-import java.util.Optional;
 
 // Immutable unbounded rational numbers.
 // Rationals are stored as irreducable fractions with a positive denominator.
@@ -22,13 +22,28 @@ public class Rational implements Comparable<Rational> {
             p = p.negate();
             q = q.negate();
         }
-        var d = p.gcd(q);
-        p = p.divide(d);
-        q = q.divide(d);
+        var d = Gcd.gcd(p, q);
+        if (!d.equals(BigInteger.ONE)) {
+            p = p.divide(d);
+            q = q.divide(d);
+        }
+        num = p;
+        den = q;
+    }
+
+    // Wraps a fraction which is already irreducible and has a positive
+    // denominator, skipping the normalization.
+    private Rational(BigInteger p, BigInteger q, boolean reduced) {
         num = p;
         den = q;
     }
 
+    // Wraps a fraction known to be irreducible with a positive denominator,
+    // such as one read back from storage.
+    static Rational ofReduced(BigInteger p, BigInteger q) {
+        return new Rational(p, q, true);
+    }
+
     public Rational(BigInteger n) {
         this(n, BigInteger.ONE);
     }
@@ -46,7 +61,17 @@ public class Rational implements Comparable<Rational> {
 
     // Absolute value of a number.
     public Rational abs() {
-        return new Rational(num.abs(), den);
+        return num.signum() < 0 ? new Rational(num.negate(), den, true) : this;
+    }
+
+    // Sign of a number: -1, 0 or 1.
+    public int signum() {
+        return num.signum();
+    }
+
+    // Checks whether the number is zero.
+    public boolean isZero() {
+        return num.signum() == 0;
     }
 
     // Adds two numbers.
@@ -58,7 +83,7 @@ public class Rational implements Comparable<Rational> {
 
     // Negates the number.
     public Rational neg() {
-        return new Rational(num.negate(), den);
+        return new Rational(num.negate(), den, true);
     }
 
     // Subtracts two numbers.
@@ -75,7 +100,13 @@ public class Rational implements Comparable<Rational> {
 
     // Inverts the number.
     public Rational inv() {
-        return new Rational(den, num);
+        if (num.signum() == 0) {
+            throw new IllegalArgumentException("Zero denominator");
+        }
+        if (num.signum() < 0) {
+            return new Rational(den.negate(), num.negate(), true);
+        }
+        return new Rational(den, num, true);
     }
 
     // Divides two numbers.
@@ -85,7 +116,29 @@ public class Rational implements Comparable<Rational> {
 
     @Override
     public int compareTo(Rational x) {
-        return sub(x).num.signum();
+        int sa = num.signum();
+        int sb = x.num.signum();
+        if (sa != sb) {
+            return Integer.compare(sa, sb);
+        }
+        if (den.equals(x.den)) {
+            return num.compareTo(x.num);
+        }
+        return num.multiply(x.den).compareTo(x.num.multiply(den));
+    }
+
+    // Compares absolute values of two numbers.
+    public int compareAbs(Rational x) {
+        if (x.num.signum() == 0) {
+            return num.signum() == 0 ? 0 : 1;
+        }
+        if (num.signum() == 0) {
+            return -1;
+        }
+        if (den.equals(x.den)) {
+            return num.abs().compareTo(x.num.abs());
+        }
+        return num.multiply(x.den).abs().compareTo(x.num.multiply(den).abs());
     }
 
     @Override
@@ -102,64 +155,83 @@ public class Rational implements Comparable<Rational> {
         return Objects.hash(num, den);
     }
 
-    private static final BigInteger BIG_TWO = BigInteger.valueOf(2);
     private static final BigInteger BIG_FIVE = BigInteger.valueOf(5);
 
-    private Optional<String> toDecimal() {
-        int twos = 0;
+    // Appends the decimal representation if the denominator has no prime
+    // factors other than 2 and 5. Returns false and leaves the buffer
+    // untouched otherwise.
+    private boolean appendDecimal(StringBuilder buf) {
+        int twos = den.getLowestSetBit();
+        var q = den.shiftRight(twos);
+        // Strip fives with repeated squaring: divide by 5, 5^2, 5^4, ...
+        // while possible, then by the same powers in reverse order.
+        var powers = new ArrayList<BigInteger>();
         int fives = 0;
-        var q = den;
-        while (q.mod(BIG_TWO).equals(BigInteger.ZERO)) {
-            q = q.divide(BIG_TWO);
-            twos += 1;
+        var pow = BIG_FIVE;
+        while (true) {
+            var qr = q.divideAndRemainder(pow);
+            if (qr[1].signum() != 0) {
+                break;
+            }
+            q = qr[0];
+            fives += 1 << powers.size();
+            powers.add(pow);
+            pow = pow.multiply(pow);
         }
-        while (q.mod(BIG_FIVE).equals(BigInteger.ZERO)) {
-            q = q.divide(BIG_FIVE);
-            fives += 1;
+        for (int i = powers.size() - 1; i >= 0; --i) {
+            var qr = q.divideAndRemainder(powers.get(i));
+            if (qr[1].signum() == 0) {
+                q = qr[0];
+                fives += 1 << i;
+            }
         }
         if (!q.equals(BigInteger.ONE)) {
-            return Optional.empty();
+            return false;
         }
 
-        var p = num;
+        var p = num.abs();
         if (twos < fives) {
-            p = p.multiply(BIG_TWO.pow(fives - twos));
+            p = p.shiftLeft(fives - twos);
         }
         else if (fives < twos) {
             p = p.multiply(BIG_FIVE.pow(twos - fives));
         }
-        p = p.abs();
         int tens = Integer.max(twos, fives);
 
-        var buf = new StringBuilder(p.toString());
-        if (buf.length() < tens+1) {
-            var padding = new StringBuilder();
-            while (buf.length() + padding.length() < tens + 1) {
-                padding.append('0');
-            }
-            buf.insert(0, padding.toString());
+        var digits = p.toString();
+        if (num.signum() < 0) {
+            buf.append('-');
+        }
+        int whole = digits.length() - tens;
+        if (whole > 0) {
+            buf.append(digits, 0, whole);
+        }
+        else {
+            buf.append('0');
         }
         if (tens > 0) {
-            buf.insert(buf.length() - tens, '.');
+            buf.append('.');
+            for (int i = whole; i < 0; ++i) {
+                buf.append('0');
+            }
+            buf.append(digits, Integer.max(whole, 0), digits.length());
         }
-        if (num.signum() < 0) {
-            buf.insert(0, '-');
+        return true;
+    }
+
+    // Appends the string representation of the number to the buffer.
+    public void appendTo(StringBuilder buf) {
+        if (!appendDecimal(buf)) {
+            buf.append(num.toString());
+            buf.append('/');
+            buf.append(den.toString());
         }
-        return Optional.of(buf.toString());
     }
 
     @Override
     public String toString() {
-        var dec = toDecimal();
-        if (dec.isPresent()) {
-            return dec.get();
-        }
-        else {
-            var buf = new StringBuilder();
-            buf.append(num.toString());
-            buf.append("/");
-            buf.append(den.toString());
-            return buf.toString();
-       }
+        var buf = new StringBuilder();
+        appendTo(buf);
+        return buf.toString();
     }
 }
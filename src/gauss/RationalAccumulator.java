@@ -0,0 +1,110 @@
+package gauss;
+
+import java.math.BigInteger;
+
+// Mutable accumulator for sums of rational products.
+// The value is kept as an unreduced fraction, so a chain of updates costs
+// a single gcd when the result is finally read with `toRational`.
+public class RationalAccumulator {
+    private BigInteger num = BigInteger.ZERO;
+    private BigInteger den = BigInteger.ONE;
+
+    public RationalAccumulator() {}
+
+    public RationalAccumulator(Rational x) {
+        set(x);
+    }
+
+    // Replaces the accumulated value.
+    // Returns this to allow method chaining.
+    public RationalAccumulator set(Rational x) {
+        num = x.numerator();
+        den = x.denominator();
+        return this;
+    }
+
+    // Adds a number to the accumulated value.
+    // Returns this to allow method chaining.
+    public RationalAccumulator add(Rational x) {
+        addFraction(x.numerator(), x.denominator());
+        return this;
+    }
+
+    // Subtracts a number from the accumulated value.
+    // Returns this to allow method chaining.
+    public RationalAccumulator sub(Rational x) {
+        addFraction(x.numerator().negate(), x.denominator());
+        return this;
+    }
+
+    // Computes `this += a * b`.
+    // Returns this to allow method chaining.
+    public RationalAccumulator addMul(Rational a, Rational b) {
+        if (!a.isZero() && !b.isZero()) {
+            addFraction(multiply(a.numerator(), b.numerator()),
+                multiply(a.denominator(), b.denominator()));
+        }
+        return this;
+    }
+
+    // Computes `this -= a * b`.
+    // Returns this to allow method chaining.
+    public RationalAccumulator subMul(Rational a, Rational b) {
+        if (!a.isZero() && !b.isZero()) {
+            addFraction(multiply(a.numerator(), b.numerator()).negate(),
+                multiply(a.denominator(), b.denominator()));
+        }
+        return this;
+    }
+
+    // Sign of the accumulated value: -1, 0 or 1.
+    public int signum() {
+        return num.signum();
+    }
+
+    // Checks whether the accumulated value is zero.
+    public boolean isZero() {
+        return num.signum() == 0;
+    }
+
+    // Normalizes the accumulated value into an immutable rational.
+    public Rational toRational() {
+        return new Rational(num, den);
+    }
+
+    @Override
+    public String toString() {
+        return toRational().toString();
+    }
+
+    private static BigInteger multiply(BigInteger a, BigInteger b) {
+        if (a.equals(BigInteger.ONE)) {
+            return b;
+        }
+        if (b.equals(BigInteger.ONE)) {
+            return a;
+        }
+        return a.multiply(b);
+    }
+
+    // Adds p/q, where q is positive.
+    private void addFraction(BigInteger p, BigInteger q) {
+        if (p.signum() == 0) {
+            return;
+        }
+        if (q.equals(den)) {
+            num = num.add(p);
+        }
+        else if (q.equals(BigInteger.ONE)) {
+            num = num.add(p.multiply(den));
+        }
+        else if (den.equals(BigInteger.ONE)) {
+            num = num.multiply(q).add(p);
+            den = q;
+        }
+        else {
+            num = num.multiply(q).add(p.multiply(den));
+            den = den.multiply(q);
+        }
+    }
+}
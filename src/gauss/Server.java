@@ -0,0 +1,159 @@
+package gauss;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// Long-running solver listening on a loopback TCP socket, which spares
+// clients the JVM startup and JIT warm-up of a process per system.
+//
+// A client sends systems as equations one per line, each system terminated
+// by a blank line. Every system gets a reply in the command line output
+// format followed by a blank line. Invalid systems are answered with
+// a single `Error: ...` line.
+//
+// Systems are solved on a fixed pool of workers with a bounded queue.
+// When the queue is full, the request is answered with `Error: Server busy`
+// instead of piling up. Every open connection holds a thread, so their
+// number is capped as well: a client connecting past the cap is answered
+// with `Error: Server busy` and disconnected.
+public class Server implements Closeable {
+    private final ServerSocket socket;
+    private final ThreadPoolExecutor workers;
+    private final ThreadPoolExecutor connections;
+    private volatile EquationCache cache = null;
+
+    // Connections served at once by default.
+    public static final int DEFAULT_CONNECTIONS = 256;
+
+    // Binds the server to the given port on the loopback interface.
+    // Port 0 picks any free port.
+    public Server(int port, int threads, int queueSize) throws IOException {
+        this(port, threads, queueSize, DEFAULT_CONNECTIONS);
+    }
+
+    // Like Server(port, threads, queueSize), serving at most `maxConnections`
+    // clients at once.
+    public Server(int port, int threads, int queueSize, int maxConnections) throws IOException {
+        socket = new ServerSocket(port, 0, InetAddress.getLoopbackAddress());
+        workers = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(queueSize), daemon("gauss-worker"));
+        connections = new ThreadPoolExecutor(0, maxConnections, 60, TimeUnit.SECONDS,
+            new SynchronousQueue<>(), daemon("gauss-connection"));
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return task -> {
+            var thread = new Thread(task, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    // Parses requests through the given cache, so equations repeated across
+    // requests are parsed once. Returns this to allow method chaining.
+    public Server setCache(EquationCache value) {
+        cache = value;
+        return this;
+    }
+
+    // Port the server is listening on.
+    public int port() {
+        return socket.getLocalPort();
+    }
+
+    // Accepts connections until the server is closed.
+    public void serve() throws IOException {
+        while (!socket.isClosed()) {
+            Socket client;
+            try {
+                client = socket.accept();
+            }
+            catch (SocketException e) {
+                if (socket.isClosed()) {
+                    break;
+                }
+                throw e;
+            }
+            try {
+                connections.execute(() -> handle(client));
+            }
+            catch (RejectedExecutionException e) {
+                refuse(client);
+            }
+        }
+    }
+
+    private void refuse(Socket client) {
+        try (client) {
+            var out = new OutputStreamWriter(client.getOutputStream(), StandardCharsets.UTF_8);
+            out.write("Error: Server busy\n\n");
+            out.flush();
+        }
+        catch (IOException e) {
+            // Client is gone already.
+        }
+    }
+
+    private void handle(Socket client) {
+        try (client) {
+            var in = new BufferedReader(new InputStreamReader(
+                client.getInputStream(), StandardCharsets.UTF_8));
+            var out = new PrintWriter(new OutputStreamWriter(
+                client.getOutputStream(), StandardCharsets.UTF_8));
+            List<String> lines;
+            while ((lines = Main.readSystem(in)) != null) {
+                if (lines.isEmpty()) {
+                    continue;
+                }
+                out.print(reply(lines));
+                out.println();
+                out.flush();
+            }
+        }
+        catch (IOException e) {
+            // Connection dropped by the client, nothing to reply to.
+        }
+    }
+
+    private String reply(List<String> lines) {
+        try {
+            var parser = cache;
+            return workers.submit(() -> Main.answer(lines, parser)).get();
+        }
+        catch (RejectedExecutionException e) {
+            return "Error: Server busy\n";
+        }
+        catch (ExecutionException e) {
+            return "Error: " + e.getCause().getMessage() + "\n";
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "Error: Interrupted\n";
+        }
+    }
+
+    // Stops accepting connections and shuts the workers down.
+    @Override
+    public void close() throws IOException {
+        socket.close();
+        connections.shutdownNow();
+        workers.shutdownNow();
+    }
+}
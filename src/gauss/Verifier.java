@@ -0,0 +1,189 @@
+package gauss;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+// Checks solutions by substituting them back into the system.
+//
+// By default every equation is evaluated modulo a few random 31-bit primes,
+// which costs a handful of word operations per non-zero coefficient instead
+// of full rational arithmetic. A wrong solution passes only if every prime
+// divides the numerator of some residual, which is vanishingly unlikely.
+// Exact mode evaluates the residuals with rational arithmetic instead.
+// Equations are checked in parallel.
+public class Verifier {
+    private int primes = 3;
+    private boolean exact = false;
+    private long seed = new Random().nextLong();
+
+    // Number of random primes every equation is checked against.
+    // Returns this to allow method chaining.
+    public Verifier setPrimes(int value) {
+        if (value < 1) {
+            throw new IllegalArgumentException("At least one prime is needed");
+        }
+        primes = value;
+        return this;
+    }
+
+    // Evaluates the residuals exactly instead of modulo primes.
+    // Returns this to allow method chaining.
+    public Verifier setExact(boolean value) {
+        exact = value;
+        return this;
+    }
+
+    // Seeds the choice of primes, making the check reproducible.
+    // Returns this to allow method chaining.
+    public Verifier setSeed(long value) {
+        seed = value;
+        return this;
+    }
+
+    // Checks that the values satisfy every equation of the system.
+    // Variables of the system missing from the values fail the check.
+    public boolean verify(EquationSystem system, Map<String, Rational> values) {
+        if (exact) {
+            return system.stream().parallel().allMatch(eq -> {
+                var acc = new RationalAccumulator(eq.getConst());
+                for (var x : eq) {
+                    var value = values.get(x.getName());
+                    if (value == null) {
+                        return false;
+                    }
+                    acc.addMul(x.getValue(), value);
+                }
+                return acc.isZero();
+            });
+        }
+        var moduli = choosePrimes();
+        var residues = new HashMap<String, long[]>();
+        for (var entry : values.entrySet()) {
+            residues.put(entry.getKey(), residues(entry.getValue(), moduli));
+        }
+        return system.stream().parallel().allMatch(eq -> {
+            var sums = residues(eq.getConst(), moduli);
+            for (var x : eq) {
+                var value = residues.get(x.getName());
+                if (value == null) {
+                    return false;
+                }
+                var coef = residues(x.getValue(), moduli);
+                for (int k = 0; k < moduli.length; ++k) {
+                    if (sums[k] < 0 || coef[k] < 0 || value[k] < 0) {
+                        sums[k] = -1;
+                    }
+                    else {
+                        sums[k] = (sums[k] + coef[k] * value[k]) % moduli[k];
+                    }
+                }
+            }
+            return check(sums, () -> {
+                var acc = new RationalAccumulator(eq.getConst());
+                for (var x : eq) {
+                    acc.addMul(x.getValue(), values.get(x.getName()));
+                }
+                return acc.isZero();
+            });
+        });
+    }
+
+    // Checks that `a * x = y`.
+    public boolean verify(Matrix a, Matrix x, Matrix y) {
+        if (a.width() != x.height() || a.height() != y.height() || x.width() != y.width()) {
+            throw new IllegalArgumentException("Matrix dimensions don't match");
+        }
+        if (exact) {
+            return Matrix.range(a.height(), Long.MAX_VALUE, a, x, y).allMatch(i -> {
+                for (int c = 0; c < y.width(); ++c) {
+                    if (!exactResidual(a, x, y, i, c)) {
+                        return false;
+                    }
+                }
+                return true;
+            });
+        }
+        var moduli = choosePrimes();
+        var xs = new long[x.height()][][];
+        for (int j = 0; j < x.height(); ++j) {
+            xs[j] = new long[x.width()][];
+            for (int c = 0; c < x.width(); ++c) {
+                xs[j][c] = residues(x.get(j, c), moduli);
+            }
+        }
+        return Matrix.range(a.height(), Long.MAX_VALUE, a, x, y).allMatch(i -> {
+            var row = new long[a.width()][];
+            for (int j = 0; j < a.width(); ++j) {
+                row[j] = a.get(i, j).isZero() ? null : residues(a.get(i, j), moduli);
+            }
+            for (int c = 0; c < y.width(); ++c) {
+                var sums = residues(y.get(i, c).neg(), moduli);
+                for (int j = 0; j < row.length; ++j) {
+                    if (row[j] == null) {
+                        continue;
+                    }
+                    var value = xs[j][c];
+                    for (int k = 0; k < moduli.length; ++k) {
+                        if (sums[k] < 0 || row[j][k] < 0 || value[k] < 0) {
+                            sums[k] = -1;
+                        }
+                        else {
+                            sums[k] = (sums[k] + row[j][k] * value[k]) % moduli[k];
+                        }
+                    }
+                }
+                int col = c;
+                if (!check(sums, () -> exactResidual(a, x, y, i, col))) {
+                    return false;
+                }
+            }
+            return true;
+        });
+    }
+
+    private static boolean exactResidual(Matrix a, Matrix x, Matrix y, int i, int c) {
+        var acc = new RationalAccumulator(y.get(i, c).neg());
+        for (int j = 0; j < a.width(); ++j) {
+            acc.addMul(a.get(i, j), x.get(j, c));
+        }
+        return acc.isZero();
+    }
+
+    private interface Fallback {
+        boolean check();
+    }
+
+    // Residual sums are zero modulo every prime. A prime dividing one of
+    // the denominators can't be used, if there are no usable primes left
+    // the residual is evaluated exactly.
+    private static boolean check(long[] sums, Fallback fallback) {
+        boolean checked = false;
+        for (var sum : sums) {
+            if (sum > 0) {
+                return false;
+            }
+            checked |= sum == 0;
+        }
+        return checked || fallback.check();
+    }
+
+    private long[] choosePrimes() {
+        var random = new Random(seed);
+        var moduli = new long[primes];
+        for (int k = 0; k < primes; ++k) {
+            moduli[k] = Modular.randomPrime(random);
+        }
+        return moduli;
+    }
+
+    // Residues of a rational modulo the primes, -1 where a prime
+    // divides the denominator.
+    private static long[] residues(Rational x, long[] moduli) {
+        var out = new long[moduli.length];
+        for (int k = 0; k < moduli.length; ++k) {
+            out[k] = Modular.reduce(x, moduli[k]);
+        }
+        return out;
+    }
+}
@@ -0,0 +1,403 @@
+package gauss;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+// Black-box solver for large sparse square systems using Wiedemann's method.
+//
+// The matrix is only used through sparse matrix-vector products, so there
+// is no fill-in and the memory stays at O(nnz + n). For every word-size
+// prime the minimal polynomial of a random projection of the Krylov
+// sequence A^i b is found with Berlekamp-Massey, which yields the solution
+// modulo that prime. Residues for several primes are combined with the
+// Chinese remainder theorem and lifted to rationals by rational
+// reconstruction, until the lifted solution stops changing and satisfies
+// the system exactly. Hadamard's bound on the determinants limits the
+// number of primes this can take.
+//
+// The method only finds unique solutions. Everything else is solved by
+// dense elimination with EquationSystem.solve, which also tells None and
+// Infinite apart: empty systems, systems which aren't square, singular
+// ones, and ones for which several primes in a row turn out unusable.
+// Nonsingularity is established with a Monte Carlo check, which errs
+// with probability below 2^-30.
+public class WiedemannSolver {
+    static final int MAX_UNUSABLE_PRIMES = 4;
+    private static final int MAX_PROJECTIONS = 3;
+
+    private long seed = new Random().nextLong();
+    private Budget budget = new Budget();
+
+    // Seeds the choice of primes and projections, making solves reproducible.
+    // Returns this to allow method chaining.
+    public WiedemannSolver setSeed(long value) {
+        seed = value;
+        return this;
+    }
+
+    // Limits the solve to the budget's deadline and cancellation token,
+    // which are checked between the sparse products. Progress is counted
+    // in primes out of the most the solve can take. Other limits only apply
+    // to fallbacks to EquationSystem.solve, which get the whole budget.
+    // Returns this to allow method chaining.
+    public WiedemannSolver setBudget(Budget value) {
+        budget = value;
+        return this;
+    }
+
+    // Sparse square system in compressed rows referring to the equation data.
+    static class Sparse {
+        final int n;
+        final int[] start;
+        final int[] cols;
+        final Rational[] coefs;
+        final Rational[] rhs;
+
+        Sparse(int[] start, int[] cols, Rational[] coefs, Rational[] rhs) {
+            this.n = rhs.length;
+            this.start = start;
+            this.cols = cols;
+            this.coefs = coefs;
+            this.rhs = rhs;
+        }
+
+        Sparse(EquationSystem system, Map<String, Integer> index) {
+            n = system.size();
+            start = new int[n + 1];
+            for (int i = 0; i < n; ++i) {
+                start[i + 1] = start[i] + system.get(i).size();
+            }
+            cols = new int[start[n]];
+            coefs = new Rational[start[n]];
+            rhs = new Rational[n];
+            for (int i = 0; i < n; ++i) {
+                var eq = system.get(i);
+                int k = start[i];
+                for (var x : eq) {
+                    cols[k] = index.get(x.getName());
+                    coefs[k] = x.getValue();
+                    ++k;
+                }
+                rhs[i] = eq.getConst().neg();
+            }
+        }
+    }
+
+    // Combines solutions modulo distinct primes by the Chinese remainder
+    // theorem and lifts them to rationals.
+    static class Lift {
+        private BigInteger modulus = BigInteger.ONE;
+        private final BigInteger[] residues;
+        private Rational[] previous = null;
+
+        Lift(int n) {
+            residues = new BigInteger[n];
+        }
+
+        // Adds the solution modulo p. Returns the lifted solution once it
+        // stops changing between images, null until then. Images modulo
+        // a prime which was already added are ignored.
+        Rational[] add(long[] image, long p) {
+            if (Modular.reduce(modulus, p) == 0) {
+                return null;
+            }
+            combine(residues, modulus, image, p);
+            modulus = modulus.multiply(BigInteger.valueOf(p));
+            var lifted = new Rational[residues.length];
+            for (int j = 0; lifted != null && j < lifted.length; ++j) {
+                lifted[j] = reconstruct(residues[j], modulus);
+                if (lifted[j] == null) {
+                    lifted = null;
+                }
+            }
+            boolean stable = lifted != null && Arrays.equals(lifted, previous);
+            previous = lifted;
+            return stable ? lifted : null;
+        }
+    }
+
+    // Variables of the system numbered in order of appearance.
+    static LinkedHashMap<String, Integer> variables(EquationSystem system) {
+        var index = new LinkedHashMap<String, Integer>();
+        for (var eq : system) {
+            for (var x : eq) {
+                index.putIfAbsent(x.getName(), index.size());
+            }
+        }
+        return index;
+    }
+
+    // Maps the lifted values back to variables if they satisfy the system
+    // exactly, returns null otherwise.
+    static Map<String, Rational> check(EquationSystem system, Map<String, Integer> index,
+            Rational[] lifted) {
+        var values = new HashMap<String, Rational>();
+        for (var entry : index.entrySet()) {
+            values.put(entry.getKey(), lifted[entry.getValue()]);
+        }
+        return new Verifier().setExact(true).verify(system, values) ? values : null;
+    }
+
+    // Solves the equation system and returns map of variables in the solution.
+    // Throws Budget.ExceededException when the budget runs out.
+    public Solution<Map<String, Rational>> solve(EquationSystem system) {
+        var index = variables(system);
+        if (index.size() != system.size() || index.isEmpty()) {
+            return system.solve(budget);
+        }
+        var sparse = new Sparse(system, index);
+        var random = new Random(seed);
+        if (!nonsingular(sparse, random, budget)) {
+            return system.solve(budget);
+        }
+        int max = maxPrimes(sparse);
+        var lift = new Lift(sparse.n);
+        int unusable = 0;
+        for (int primes = 0; primes < max; ) {
+            long p = Modular.randomPrime(random);
+            var image = image(sparse, p, random, budget, primes, max);
+            if (image == null) {
+                if (++unusable >= MAX_UNUSABLE_PRIMES) {
+                    return system.solve(budget);
+                }
+                continue;
+            }
+            unusable = 0;
+            ++primes;
+            var lifted = lift.add(image, p);
+            if (lifted != null) {
+                var values = check(system, index, lifted);
+                if (values != null) {
+                    return Solution.unique(values);
+                }
+            }
+        }
+        throw new IllegalStateException("No solution lifted within " + max + " primes");
+    }
+
+    // Most primes the lifting can need. By Cramer's rule the solution is a
+    // ratio of determinants of the system with rows scaled to integers,
+    // which are below Hadamard's bound H, the product of the row norms.
+    // Rational reconstruction recovers it once the modulus exceeds 2 H^2,
+    // and one more prime shows that the lifted solution stopped changing.
+    static int maxPrimes(Sparse sparse) {
+        long bits = 0;
+        for (int i = 0; i < sparse.n; ++i) {
+            var scale = sparse.rhs[i].denominator();
+            for (int k = sparse.start[i]; k < sparse.start[i + 1]; ++k) {
+                var q = sparse.coefs[k].denominator();
+                scale = scale.divide(Gcd.gcd(scale, q)).multiply(q);
+            }
+            var b = sparse.rhs[i].numerator().multiply(scale.divide(sparse.rhs[i].denominator()));
+            var norm = b.multiply(b);
+            for (int k = sparse.start[i]; k < sparse.start[i + 1]; ++k) {
+                var x = sparse.coefs[k];
+                var a = x.numerator().multiply(scale.divide(x.denominator()));
+                norm = norm.add(a.multiply(a));
+            }
+            // The norm is below 2^(bitLength / 2 + 1).
+            bits += norm.bitLength() / 2 + 1;
+        }
+        // Primes have 31 bits, so each one adds at least 30 to the modulus.
+        return (int)Long.min(Integer.MAX_VALUE, (2 * bits + 1 + 29) / 30 + 1);
+    }
+
+    // Solution of the system modulo p, or null if p is unusable: it divides
+    // a denominator or the system is singular modulo p.
+    static long[] image(Sparse sparse, long p, Random random) {
+        return image(sparse, p, random, new Budget(), 0, 0);
+    }
+
+    // Like image(sparse, p, random), checking the budget as it goes with
+    // `done` out of `total` primes used.
+    static long[] image(Sparse sparse, long p, Random random, Budget budget,
+            int done, int total) {
+        var a = reduce(sparse.coefs, p);
+        var b = reduce(sparse.rhs, p);
+        if (a == null || b == null) {
+            return null;
+        }
+        return solveModulo(sparse, a, b, p, random, budget, done, total);
+    }
+
+    // Checks that the matrix is nonsingular by solving it for a random
+    // right-hand side modulo a prime. A singular matrix passes only if the
+    // random vector happens to lie in its image, with probability 1/p.
+    static boolean nonsingular(Sparse sparse, Random random) {
+        return nonsingular(sparse, random, new Budget());
+    }
+
+    // Like nonsingular(sparse, random), checking the budget as it goes.
+    // Counts as progress before the first prime.
+    static boolean nonsingular(Sparse sparse, Random random, Budget budget) {
+        int total = maxPrimes(sparse);
+        for (int attempt = 0; attempt < MAX_UNUSABLE_PRIMES; ++attempt) {
+            long p = Modular.randomPrime(random);
+            var a = reduce(sparse.coefs, p);
+            if (a == null) {
+                continue;
+            }
+            var b = new long[sparse.n];
+            for (int i = 0; i < b.length; ++i) {
+                b[i] = Math.floorMod(random.nextLong(), p);
+            }
+            if (solveModulo(sparse, a, b, p, random, budget, 0, total) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Residues of the numbers modulo p, or null if p divides a denominator.
+    private static long[] reduce(Rational[] xs, long p) {
+        var out = new long[xs.length];
+        for (int k = 0; k < xs.length; ++k) {
+            out[k] = Modular.reduce(xs[k], p);
+            if (out[k] < 0) {
+                return null;
+            }
+        }
+        return out;
+    }
+
+    // Solution of `a * x = b` modulo p, or null if none was found, which
+    // is almost certainly because the matrix is singular modulo p.
+    private static long[] solveModulo(Sparse sparse, long[] a, long[] b, long p, Random random,
+            Budget budget, int done, int total) {
+        int n = sparse.n;
+        for (int attempt = 0; attempt < MAX_PROJECTIONS; ++attempt) {
+            var u = new long[n];
+            for (int i = 0; i < n; ++i) {
+                u[i] = Math.floorMod(random.nextLong(), p);
+            }
+            var seq = new long[2 * n];
+            var v = b.clone();
+            for (int i = 0; i < seq.length; ++i) {
+                budget.check(done, total, "primes");
+                seq[i] = dot(u, v, p);
+                v = multiply(sparse, a, v, p);
+            }
+            var c = berlekampMassey(seq, p);
+            int len = c.length - 1;
+            if (c[len] == 0) {
+                continue;
+            }
+            // Minimal polynomial f(z) = sum c[len - j] z^j, so f(A) b = 0
+            // gives x = -1/f(0) * sum_{j >= 1} f_j A^(j-1) b.
+            var x = new long[n];
+            for (int j = len; j >= 1; --j) {
+                budget.check(done, total, "primes");
+                x = multiply(sparse, a, x, p);
+                long f = c[len - j];
+                for (int i = 0; i < n; ++i) {
+                    x[i] = (x[i] + f * b[i]) % p;
+                }
+            }
+            long scale = p - Modular.inverse(c[len], p);
+            for (int i = 0; i < n; ++i) {
+                x[i] = x[i] * scale % p;
+            }
+            if (Arrays.equals(multiply(sparse, a, x, p), b)) {
+                return x;
+            }
+        }
+        return null;
+    }
+
+    private static long dot(long[] u, long[] v, long p) {
+        long sum = 0;
+        for (int i = 0; i < u.length; ++i) {
+            sum = (sum + u[i] * v[i]) % p;
+        }
+        return sum;
+    }
+
+    private static long[] multiply(Sparse sparse, long[] a, long[] v, long p) {
+        var out = new long[sparse.n];
+        for (int i = 0; i < sparse.n; ++i) {
+            long sum = 0;
+            for (int k = sparse.start[i]; k < sparse.start[i + 1]; ++k) {
+                sum = (sum + a[k] * v[sparse.cols[k]]) % p;
+            }
+            out[i] = sum;
+        }
+        return out;
+    }
+
+    // Shortest connection polynomial c, with c[0] = 1, such that
+    // sum_j c[j] s[i - j] = 0 for every i >= c.length - 1.
+    private static long[] berlekampMassey(long[] s, long p) {
+        var c = new long[s.length + 1];
+        var b = new long[s.length + 1];
+        c[0] = 1;
+        b[0] = 1;
+        int len = 0;
+        int shift = 1;
+        long last = 1;
+        for (int i = 0; i < s.length; ++i) {
+            long d = s[i];
+            for (int j = 1; j <= len; ++j) {
+                d = (d + c[j] * s[i - j]) % p;
+            }
+            if (d == 0) {
+                ++shift;
+                continue;
+            }
+            long coef = d * Modular.inverse(last, p) % p;
+            var prev = 2 * len <= i ? c.clone() : null;
+            for (int j = shift; j < c.length; ++j) {
+                c[j] = Math.floorMod(c[j] - coef * b[j - shift], p);
+            }
+            if (prev != null) {
+                len = i + 1 - len;
+                b = prev;
+                last = d;
+                shift = 1;
+            }
+            else {
+                ++shift;
+            }
+        }
+        return Arrays.copyOf(c, len + 1);
+    }
+
+    // Merges residues modulo p into residues modulo `modulus`.
+    private static void combine(BigInteger[] residues, BigInteger modulus, long[] image, long p) {
+        long inv = Modular.inverse(Modular.reduce(modulus, p), p);
+        for (int j = 0; j < residues.length; ++j) {
+            if (residues[j] == null) {
+                residues[j] = BigInteger.valueOf(image[j]);
+                continue;
+            }
+            long diff = Math.floorMod(image[j] - Modular.reduce(residues[j], p), p);
+            long t = diff * inv % p;
+            residues[j] = residues[j].add(modulus.multiply(BigInteger.valueOf(t)));
+        }
+    }
+
+    // Rational p/q congruent to x modulo m with |p|, q <= sqrt(m / 2),
+    // or null if there's none.
+    private static Rational reconstruct(BigInteger x, BigInteger m) {
+        var bound = m.shiftRight(1).sqrt();
+        var r0 = m;
+        var r1 = x;
+        var t0 = BigInteger.ZERO;
+        var t1 = BigInteger.ONE;
+        while (r1.compareTo(bound) > 0) {
+            var qr = r0.divideAndRemainder(r1);
+            r0 = r1;
+            r1 = qr[1];
+            var t = t0.subtract(qr[0].multiply(t1));
+            t0 = t1;
+            t1 = t;
+        }
+        if (t1.abs().compareTo(bound) > 0 || !r1.gcd(t1).equals(BigInteger.ONE)) {
+            return null;
+        }
+        return new Rational(r1, t1);
+    }
+}
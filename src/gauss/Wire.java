@@ -0,0 +1,114 @@
+package gauss;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+
+// Binary framing used between DistributedSolver and its workers.
+//
+// Every message starts with a type byte:
+//   SYSTEM  - int n, int nnz, n+1 row starts, nnz columns, nnz coefficients
+//             and n right-hand sides
+//   TASK    - long prime below 2^31, long seed
+//   IMAGE   - n longs, the reply to a task
+//   UNUSABLE - reply to a task whose prime can't be used
+//   QUIT    - end of the session
+// Rationals are written as two length-prefixed two's complement integers.
+// Input which doesn't follow the framing is rejected with an IOException
+// before anything is allocated for it.
+class Wire {
+    private Wire() {}
+
+    // Longest integer accepted, in bytes.
+    static final int MAX_BIG_LENGTH = 1 << 24;
+
+    static final byte SYSTEM = 'S';
+    static final byte TASK = 'T';
+    static final byte IMAGE = 'I';
+    static final byte UNUSABLE = 'U';
+    static final byte QUIT = 'Q';
+
+    static void writeBig(DataOutputStream out, BigInteger x) throws IOException {
+        var bytes = x.toByteArray();
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static BigInteger readBig(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length <= 0 || length > MAX_BIG_LENGTH) {
+            throw new IOException("Malformed system");
+        }
+        var bytes = new byte[length];
+        in.readFully(bytes);
+        return new BigInteger(bytes);
+    }
+
+    static void writeRational(DataOutputStream out, Rational x) throws IOException {
+        writeBig(out, x.numerator());
+        writeBig(out, x.denominator());
+    }
+
+    static Rational readRational(DataInputStream in) throws IOException {
+        var p = readBig(in);
+        var q = readBig(in);
+        if (q.signum() == 0) {
+            throw new IOException("Malformed system");
+        }
+        return new Rational(p, q);
+    }
+
+    static void writeSystem(DataOutputStream out, WiedemannSolver.Sparse sparse) throws IOException {
+        out.writeByte(SYSTEM);
+        out.writeInt(sparse.n);
+        out.writeInt(sparse.cols.length);
+        for (var x : sparse.start) {
+            out.writeInt(x);
+        }
+        for (var x : sparse.cols) {
+            out.writeInt(x);
+        }
+        for (var x : sparse.coefs) {
+            writeRational(out, x);
+        }
+        for (var x : sparse.rhs) {
+            writeRational(out, x);
+        }
+    }
+
+    // Reads a system, the type byte must have been consumed already.
+    static WiedemannSolver.Sparse readSystem(DataInputStream in) throws IOException {
+        int n = in.readInt();
+        int nnz = in.readInt();
+        if (n < 0 || n == Integer.MAX_VALUE || nnz < 0) {
+            throw new IOException("Malformed system");
+        }
+        var start = new int[n + 1];
+        for (int i = 0; i <= n; ++i) {
+            start[i] = in.readInt();
+            if (start[i] < (i == 0 ? 0 : start[i - 1]) || start[i] > nnz) {
+                throw new IOException("Malformed system");
+            }
+        }
+        var cols = new int[nnz];
+        for (int k = 0; k < nnz; ++k) {
+            cols[k] = in.readInt();
+            if (cols[k] < 0 || cols[k] >= n) {
+                throw new IOException("Malformed system");
+            }
+        }
+        if (start[0] != 0 || start[n] != nnz) {
+            throw new IOException("Malformed system");
+        }
+        var coefs = new Rational[nnz];
+        for (int k = 0; k < nnz; ++k) {
+            coefs[k] = readRational(in);
+        }
+        var rhs = new Rational[n];
+        for (int i = 0; i < n; ++i) {
+            rhs[i] = readRational(in);
+        }
+        return new WiedemannSolver.Sparse(start, cols, coefs, rhs);
+    }
+}
@@ -0,0 +1,102 @@
+package gauss;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.Random;
+
+// Worker process of DistributedSolver. Listens on a loopback port and
+// computes solutions of the received system modulo the requested primes.
+// Every connection is served on its own thread and holds its own system.
+// See Wire for the message format.
+public class Worker implements Closeable {
+    private final ServerSocket socket;
+
+    // Binds the worker to the given port on the loopback interface.
+    // Port 0 picks any free port.
+    public Worker(int port) throws IOException {
+        socket = new ServerSocket(port, 0, InetAddress.getLoopbackAddress());
+    }
+
+    // Port the worker is listening on.
+    public int port() {
+        return socket.getLocalPort();
+    }
+
+    // Accepts connections until the worker is closed.
+    public void serve() throws IOException {
+        while (!socket.isClosed()) {
+            Socket client;
+            try {
+                client = socket.accept();
+            }
+            catch (SocketException e) {
+                if (socket.isClosed()) {
+                    break;
+                }
+                throw e;
+            }
+            var thread = new Thread(() -> handle(client), "gauss-worker");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    private void handle(Socket client) {
+        try (client) {
+            var in = new DataInputStream(new BufferedInputStream(client.getInputStream()));
+            var out = new DataOutputStream(new BufferedOutputStream(client.getOutputStream()));
+            WiedemannSolver.Sparse sparse = null;
+            while (true) {
+                byte type = in.readByte();
+                if (type == Wire.SYSTEM) {
+                    sparse = Wire.readSystem(in);
+                }
+                else if (type == Wire.TASK && sparse != null) {
+                    long p = in.readLong();
+                    long seed = in.readLong();
+                    if (p < 2 || p >= 1L << 31) {
+                        throw new IOException("Malformed task");
+                    }
+                    var image = WiedemannSolver.image(sparse, p, new Random(seed));
+                    if (image == null) {
+                        out.writeByte(Wire.UNUSABLE);
+                    }
+                    else {
+                        out.writeByte(Wire.IMAGE);
+                        for (var x : image) {
+                            out.writeLong(x);
+                        }
+                    }
+                    out.flush();
+                }
+                else if (type == Wire.QUIT) {
+                    break;
+                }
+                else {
+                    throw new IOException("Unexpected message " + type);
+                }
+            }
+        }
+        catch (EOFException e) {
+            // Coordinator went away.
+        }
+        catch (IOException e) {
+            System.err.println(e.getMessage());
+        }
+    }
+
+    // Stops accepting connections.
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+}
@@ -0,0 +1,208 @@
+package gauss;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+
+// Seeded generator of synthetic linear systems for tests and benchmarks.
+//
+// The system has `size` equations in variables x0, x1, ... and is built
+// around a hidden solution. The coefficient matrix is strictly diagonally
+// dominant, hence nonsingular, and off-diagonal cells are non-zero with
+// probability `density`. With more than one block, variables are split
+// into contiguous blocks and equations only mix variables of their own
+// block. Coefficients are random integers of up to `bits` bits.
+//
+// `deficiency` equations are then replaced with combinations of two other
+// equations, which lowers the rank by as much and leaves infinitely many
+// solutions. `inconsistent` more equations are replaced the same way but
+// with their constant shifted, which leaves no solutions at all.
+// Generated systems are the same for the same parameters.
+public class Workload {
+    private long seed = 0;
+    private int size = 10;
+    private double density = 1.0;
+    private int bits = 8;
+    private int deficiency = 0;
+    private int inconsistent = 0;
+    private int blocks = 1;
+
+    private ArrayList<Map<Integer, Rational>> rows = null;
+    private ArrayList<Rational> rhs = null;
+
+    // Returns this to allow method chaining.
+    public Workload setSeed(long value) {
+        seed = value;
+        return reset();
+    }
+
+    // Number of equations and variables.
+    // Returns this to allow method chaining.
+    public Workload setSize(int value) {
+        size = value;
+        return reset();
+    }
+
+    // Probability of an off-diagonal coefficient being non-zero.
+    // Returns this to allow method chaining.
+    public Workload setDensity(double value) {
+        density = value;
+        return reset();
+    }
+
+    // Maximum bit length of coefficients.
+    // Returns this to allow method chaining.
+    public Workload setBits(int value) {
+        bits = value;
+        return reset();
+    }
+
+    // Number of dependent equations.
+    // Returns this to allow method chaining.
+    public Workload setDeficiency(int value) {
+        deficiency = value;
+        return reset();
+    }
+
+    // Number of dependent equations contradicting the others.
+    // Returns this to allow method chaining.
+    public Workload setInconsistent(int value) {
+        inconsistent = value;
+        return reset();
+    }
+
+    // Number of independent diagonal blocks.
+    // Returns this to allow method chaining.
+    public Workload setBlocks(int value) {
+        blocks = value;
+        return reset();
+    }
+
+    private Workload reset() {
+        rows = null;
+        rhs = null;
+        return this;
+    }
+
+    // Coefficients of the system as a size x size matrix.
+    public Matrix coefficients() {
+        generate();
+        return new Matrix(size, size, (i, j) -> rows.get(i).getOrDefault(j, Rational.ZERO));
+    }
+
+    // Right-hand side of the system as a size x 1 matrix.
+    public Matrix rightHandSide() {
+        generate();
+        return new Matrix(size, 1, (i, j) -> rhs.get(i));
+    }
+
+    // The system as equations in variables x0, x1, ...
+    public EquationSystem system() {
+        generate();
+        var system = new EquationSystem();
+        for (int i = 0; i < size; ++i) {
+            var eq = new Equation();
+            for (var cell : rows.get(i).entrySet()) {
+                eq.set("x" + cell.getKey(), cell.getValue());
+            }
+            system.add(eq.setConst(rhs.get(i).neg()));
+        }
+        return system;
+    }
+
+    private void generate() {
+        if (rows != null) {
+            return;
+        }
+        if (deficiency + inconsistent >= size && size > 0) {
+            throw new IllegalArgumentException("Too many dependent equations");
+        }
+        var random = new Random(seed);
+        int blockSize = (size + blocks - 1) / Integer.max(blocks, 1);
+        var solution = new Rational[size];
+        for (int j = 0; j < size; ++j) {
+            solution[j] = new Rational(random.nextInt(201) - 100, random.nextInt(9) + 1);
+        }
+        rows = new ArrayList<>();
+        rhs = new ArrayList<>();
+        for (int i = 0; i < size; ++i) {
+            var row = new HashMap<Integer, Rational>();
+            int start = i / blockSize * blockSize;
+            int end = Integer.min(start + blockSize, size);
+            var dominance = BigInteger.ONE;
+            for (int j = start; j < end; ++j) {
+                if (j != i && random.nextDouble() < density) {
+                    var x = coefficient(random);
+                    dominance = dominance.add(x.abs());
+                    row.put(j, new Rational(x));
+                }
+            }
+            var diagonal = dominance.add(new BigInteger(bits, random));
+            row.put(i, new Rational(random.nextBoolean() ? diagonal : diagonal.negate()));
+            rows.add(row);
+            rhs.add(dot(row, solution));
+        }
+
+        var replaced = new HashSet<Integer>();
+        while (replaced.size() < deficiency + inconsistent) {
+            replaced.add(random.nextInt(size));
+        }
+        int shifted = 0;
+        for (int i : replaced) {
+            int start = i / blockSize * blockSize;
+            int end = Integer.min(start + blockSize, size);
+            var sources = new ArrayList<Integer>();
+            for (int k = start; k < end; ++k) {
+                if (!replaced.contains(k)) {
+                    sources.add(k);
+                }
+            }
+            if (sources.isEmpty()) {
+                for (int k = 0; k < size; ++k) {
+                    if (!replaced.contains(k)) {
+                        sources.add(k);
+                    }
+                }
+            }
+            int a = sources.get(random.nextInt(sources.size()));
+            int b = sources.get(random.nextInt(sources.size()));
+            var ca = new Rational(coefficient(random));
+            var cb = new Rational(coefficient(random));
+            var row = new HashMap<Integer, Rational>();
+            for (var cell : rows.get(a).entrySet()) {
+                row.merge(cell.getKey(), cell.getValue().mul(ca), Rational::add);
+            }
+            for (var cell : rows.get(b).entrySet()) {
+                row.merge(cell.getKey(), cell.getValue().mul(cb), Rational::add);
+            }
+            row.values().removeIf(Rational::isZero);
+            var value = rhs.get(a).mul(ca).add(rhs.get(b).mul(cb));
+            if (shifted < inconsistent) {
+                value = value.add(Rational.ONE);
+                ++shifted;
+            }
+            rows.set(i, row);
+            rhs.set(i, value);
+        }
+    }
+
+    // Random non-zero integer of up to `bits` bits.
+    private BigInteger coefficient(Random random) {
+        var x = new BigInteger(bits, random);
+        if (x.signum() == 0) {
+            x = BigInteger.ONE;
+        }
+        return random.nextBoolean() ? x : x.negate();
+    }
+
+    private static Rational dot(Map<Integer, Rational> row, Rational[] x) {
+        var acc = new RationalAccumulator();
+        for (var cell : row.entrySet()) {
+            acc.addMul(cell.getValue(), x[cell.getKey()]);
+        }
+        return acc.toRational();
+    }
+}
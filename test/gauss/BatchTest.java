@@ -0,0 +1,44 @@
+package gauss;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+public class BatchTest {
+    @Test
+    public void testRun() throws Exception {
+        var input = new StringBuilder("\n\n");
+        var expected = new StringBuilder();
+        for (int i = 0; i < 100; ++i) {
+            input.append("x + y = " + (2*i) + "\nx - y = 0\n\n\n");
+            expected.append("Unique solution:\nx = " + i + "\ny = " + i + "\n\n");
+            input.append("x + y = 1\n2x + 2y = 2\n\n");
+            expected.append("Infinitely many solutions\n\n");
+        }
+        input.append("x + * y = 1");
+        expected.append("Error: ");
+        var out = new StringWriter();
+        Batch.run(new BufferedReader(new StringReader(input.toString())), out, 4);
+        assertTrue(out.toString().startsWith(expected.toString()), "results are in input order");
+        assertTrue(out.toString().endsWith("\n\n"), "error result is terminated");
+    }
+
+    @Test
+    public void testRunCached() throws Exception {
+        var input = new StringBuilder();
+        var expected = new StringBuilder();
+        for (int i = 0; i < 50; ++i) {
+            input.append("x + y = 2\nx - y = " + (2*i) + "\n\n");
+            expected.append("Unique solution:\nx = " + (i + 1) + "\ny = " + (1 - i) + "\n\n");
+        }
+        var cache = new EquationCache(1 << 20);
+        var out = new StringWriter();
+        Batch.run(new BufferedReader(new StringReader(input.toString())), out, 4, cache);
+        assertEquals(expected.toString(), out.toString(), "cached results match");
+        assertEquals(51, cache.size(), "shared equation is cached once");
+        assertEquals(100, cache.hits() + cache.misses(), "every equation is looked up");
+    }
+}
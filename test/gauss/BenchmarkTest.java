@@ -0,0 +1,43 @@
+package gauss;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Properties;
+
+public class BenchmarkTest {
+    @Test
+    public void testRun() {
+        var results = Benchmark.run(new Workload().setDensity(0.5), new int[] {5, 10},
+            Duration.ofSeconds(30), result -> {});
+        assertEquals(5 * 2, results.size(), "every engine runs every size");
+        for (var result : results) {
+            assertEquals("unique", result.outcome, result.key() + " outcome");
+        }
+    }
+
+    @Test
+    public void testGcd() {
+        var results = Benchmark.gcd(new int[] {100, 5000}, 3, result -> {});
+        assertEquals(2 * 2, results.size(), "both constructors run every size");
+        for (var result : results) {
+            assertEquals("ok", result.outcome, result.key() + " outcome");
+        }
+    }
+
+    @Test
+    public void testRegressions() {
+        var baseline = new Properties();
+        baseline.setProperty("wiedemann.100", "100");
+        baseline.setProperty("wiedemann.200", "100");
+        var results = List.of(
+            new Benchmark.Result("wiedemann", 100, 115, 0, 0, "unique"),
+            new Benchmark.Result("wiedemann", 200, 150, 0, 0, "unique"),
+            new Benchmark.Result("wiedemann", 500, 900, 0, 0, "unique"));
+        var slow = Benchmark.regressions(results, baseline, 20);
+        assertEquals(1, slow.size(), "one regression");
+        assertTrue(slow.get(0).startsWith("wiedemann.200"), "slower run is reported");
+    }
+}
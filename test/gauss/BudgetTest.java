@@ -0,0 +1,81 @@
+package gauss;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+public class BudgetTest {
+    private Matrix a = new Matrix(3, 3,
+        new Rational(1), new Rational(3), new Rational(2),
+        new Rational(2), new Rational(1, 2), new Rational(3),
+        new Rational(5), new Rational(6), new Rational(1, 3));
+    private Matrix y = new Matrix(3, 1,
+        new Rational(13),
+        new Rational(12),
+        new Rational(18));
+
+    private Budget.Reason abortReason(Budget budget) {
+        var e = assertThrows(Budget.ExceededException.class, () -> {
+            a.solve(y, Matrix.Method.GAUSS_JORDAN, budget);
+        });
+        return e.getReason();
+    }
+
+    @Test
+    public void testUnlimited() {
+        var x = a.solve(y, Matrix.Method.BACK_SUBSTITUTION, new Budget());
+        assertTrue(x.isUnique(), "unique solution exists");
+    }
+
+    @Test
+    public void testCancelled() {
+        var token = new Budget.Token();
+        token.cancel();
+        assertEquals(Budget.Reason.CANCELLED, abortReason(new Budget().setToken(token)));
+    }
+
+    @Test
+    public void testDeadline() {
+        var budget = new Budget().setDeadline(Instant.now().minusSeconds(1));
+        assertEquals(Budget.Reason.DEADLINE, abortReason(budget));
+    }
+
+    @Test
+    public void testMaxBits() {
+        assertEquals(Budget.Reason.COEFFICIENT_SIZE, abortReason(new Budget().setMaxBits(3)));
+    }
+
+    @Test
+    public void testMaxBitsGrowth() {
+        // Coefficients start within the limit and outgrow it during the
+        // elimination, which only rescans the rows it updates.
+        var e = assertThrows(Budget.ExceededException.class, () -> {
+            a.solve(y, Matrix.Method.GAUSS_JORDAN, new Budget().setMaxBits(5));
+        });
+        assertEquals(Budget.Reason.COEFFICIENT_SIZE, e.getReason());
+        assertTrue(e.getDone() > 0, "aborted after the first pivot");
+    }
+
+    @Test
+    public void testMaxMemory() {
+        assertEquals(Budget.Reason.MEMORY, abortReason(new Budget().setMaxMemory(100)));
+    }
+
+    @Test
+    public void testProgress() {
+        var reports = new ArrayList<Integer>();
+        var budget = new Budget().setProgress((done, total) -> {
+            assertEquals(3, total, "total pivot steps");
+            reports.add(done);
+        });
+        var system = new EquationSystem();
+        system.add(Equation.parse("x + y + z = 1"));
+        system.add(Equation.parse("x - y = 0"));
+        system.add(Equation.parse("y - z = 0"));
+        assertTrue(system.solve(budget).isUnique(), "unique solution exists");
+        assertEquals(List.of(0, 1, 2, 3), reports, "progress reports");
+    }
+}
@@ -0,0 +1,265 @@
+package gauss;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+
+public class CheckpointTest {
+    private void assertMatrixEquals(Matrix expected, Matrix actual) {
+        assertEquals(expected.height(), actual.height(), "matrix heights match");
+        assertEquals(expected.width(), actual.width(), "matrix widths match");
+        for (int i = 0; i < expected.height(); ++i) {
+            for (int j = 0; j < expected.width(); ++j) {
+                assertEquals(expected.get(i, j), actual.get(i, j),
+                    "elements at (" + i + ", " + j + ") match");
+            }
+        }
+    }
+
+    // Budget which is cancelled once the given pivot step is reached.
+    private Budget killedAt(int step, Checkpoint checkpoint) {
+        var token = new Budget.Token();
+        return new Budget().setToken(token).setCheckpoint(checkpoint).setProgress((done, total) -> {
+            if (done == step) {
+                token.cancel();
+            }
+        });
+    }
+
+    @Test
+    public void testResumeMatrix() throws Exception {
+        var workload = new Workload().setSeed(7).setSize(12).setBits(16);
+        var a = workload.coefficients();
+        var y = workload.rightHandSide();
+        for (var method : Matrix.Method.values()) {
+            for (var normalization : Matrix.Normalization.values()) {
+                var expected = a.solve(y, method, normalization, new Budget());
+                var file = Files.createTempFile("gauss", ".ckpt");
+                try {
+                    var checkpoint = new Checkpoint(file).setPivots(1);
+                    var e = assertThrows(Budget.ExceededException.class, () -> {
+                        a.solve(y, method, normalization, killedAt(6, checkpoint));
+                    });
+                    assertEquals(Budget.Reason.CANCELLED, e.getReason());
+                    var state = Checkpoint.load(file);
+                    assertTrue(state.column <= 6,
+                        "snapshot taken before the solve was killed");
+                    assertEquals(method, state.method, "method is stored");
+                    assertEquals(normalization, state.normalization, "normalization is stored");
+                    var actual = Matrix.resume(file, new Budget());
+                    assertEquals(expected.isUnique(), actual.isUnique(), "same kind of solution");
+                    assertMatrixEquals(expected.asUnique().get(), actual.asUnique().get());
+                }
+                finally {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testResumeSystem() throws Exception {
+        var system = new Workload().setSeed(11).setSize(10).setBits(12).system();
+        var expected = system.solve();
+        assertTrue(expected.isUnique(), "unique solution exists");
+        var file = Files.createTempFile("gauss", ".ckpt");
+        try {
+            var checkpoint = new Checkpoint(file).setPivots(2);
+            assertThrows(Budget.ExceededException.class, () -> {
+                system.solve(killedAt(5, checkpoint));
+            });
+            var actual = EquationSystem.resume(file, new Budget());
+            assertEquals(expected.asUnique().get(), actual.asUnique().get(), "solutions match");
+        }
+        finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testResumeMatrixSnapshotFromSystem() throws Exception {
+        var file = Files.createTempFile("gauss", ".ckpt");
+        try {
+            var a = new Matrix(2, 2, new Rational(1), new Rational(2), new Rational(3), new Rational(4));
+            var y = new Matrix(2, 1, new Rational(5), new Rational(6));
+            a.solve(y, Matrix.Method.GAUSS_JORDAN, new Budget().setCheckpoint(new Checkpoint(file).setPivots(1)));
+            assertThrows(IllegalArgumentException.class, () -> {
+                EquationSystem.resume(file, new Budget());
+            });
+            assertTrue(Matrix.resume(file, new Budget()).isUnique(), "plain matrix snapshot resumes");
+        }
+        finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    // Snapshot header with the given method, normalization and shape,
+    // without any cells.
+    private byte[] header(int method, int normalization, int height, int width)
+            throws IOException {
+        var bytes = new ByteArrayOutputStream();
+        var out = new DataOutputStream(bytes);
+        out.writeInt(0x47434b50);
+        out.writeInt(1);
+        out.writeByte(method);
+        out.writeByte(normalization);
+        out.writeInt(1);
+        out.writeInt(0);
+        out.writeInt(0);
+        out.writeInt(height);
+        out.writeInt(width);
+        out.writeInt(0);
+        return bytes.toByteArray();
+    }
+
+    @Test
+    public void testInvalidFile() throws Exception {
+        var file = Files.createTempFile("gauss", ".ckpt");
+        try {
+            Files.write(file, new byte[] {1, 2, 3, 4, 5, 6, 7, 8});
+            assertThrows(IOException.class, () -> Matrix.resume(file, new Budget()));
+            var invalid = new byte[][] {
+                header(Matrix.Method.values().length, 0, 1, 2),
+                header(0, -1, 1, 2),
+                header(0, 0, -1, 2),
+                header(0, 0, 1, -2),
+                header(0, 0, 1 << 16, 1 << 16),
+            };
+            for (var bytes : invalid) {
+                Files.write(file, bytes);
+                var e = assertThrows(IOException.class, () -> Matrix.resume(file, new Budget()));
+                assertEquals("Invalid checkpoint", e.getMessage(), "header is rejected");
+            }
+        }
+        finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testResumeTwice() throws Exception {
+        var system = new Workload().setSeed(12).setSize(10).setBits(12).system();
+        var expected = system.solve();
+        var first = Files.createTempFile("gauss", ".ckpt");
+        var second = Files.createTempFile("gauss", ".ckpt");
+        try {
+            assertThrows(Budget.ExceededException.class, () -> {
+                system.solve(killedAt(3, new Checkpoint(first).setPivots(1)));
+            });
+            assertThrows(Budget.ExceededException.class, () -> {
+                EquationSystem.resume(first, killedAt(7, new Checkpoint(second).setPivots(1)));
+            });
+            assertFalse(Checkpoint.load(second).variables.isEmpty(), "resumed snapshot keeps variables");
+            var actual = EquationSystem.resume(second, new Budget());
+            assertEquals(expected.asUnique().get(), actual.asUnique().get(), "solutions match");
+        }
+        finally {
+            Files.deleteIfExists(first);
+            Files.deleteIfExists(second);
+        }
+    }
+
+    private long writerThreads() {
+        return Thread.getAllStackTraces().keySet().stream()
+            .filter(t -> t.getName().equals("gauss-checkpoint") && t.isAlive())
+            .count();
+    }
+
+    @Test
+    public void testWriterStopped() throws Exception {
+        var file = Files.createTempFile("gauss", ".ckpt");
+        try {
+            var workload = new Workload().setSeed(13).setSize(8);
+            for (int i = 0; i < 5; ++i) {
+                var budget = new Budget().setCheckpoint(new Checkpoint(file).setPivots(1));
+                workload.coefficients().solve(workload.rightHandSide(), Matrix.Method.GAUSS_JORDAN, budget);
+            }
+            for (int i = 0; i < 100 && writerThreads() > 0; ++i) {
+                Thread.sleep(10);
+            }
+            assertEquals(0, writerThreads(), "writer threads end with their solves");
+        }
+        finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testFailedWriteSuppressed() throws Exception {
+        var dir = Files.createTempDirectory("gauss");
+        var file = dir.resolve("missing").resolve("solve.ckpt");
+        try {
+            var workload = new Workload().setSeed(14).setSize(8);
+            var e = assertThrows(Budget.ExceededException.class, () -> {
+                workload.coefficients().solve(workload.rightHandSide(), Matrix.Method.GAUSS_JORDAN,
+                    Matrix.Normalization.NONE, killedAt(0, new Checkpoint(file).setPivots(1)));
+            });
+            assertEquals(Budget.Reason.CANCELLED, e.getReason(), "budget overrun is reported");
+            assertEquals(1, e.getSuppressed().length, "failed write is attached");
+            assertTrue(e.getSuppressed()[0] instanceof UncheckedIOException, "failed write");
+        }
+        finally {
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    @Test
+    public void testFailedWriteKeepsSolving() throws Exception {
+        var dir = Files.createTempDirectory("gauss");
+        var missing = dir.resolve("missing");
+        var file = missing.resolve("solve.ckpt");
+        try {
+            var workload = new Workload().setSeed(15).setSize(12);
+            var a = workload.coefficients();
+            var y = workload.rightHandSide();
+            var expected = a.solve(y);
+            var budget = new Budget().setCheckpoint(new Checkpoint(file).setPivots(1))
+                .setProgress((done, total) -> {
+                    if (done == 3) {
+                        try {
+                            Files.createDirectory(missing);
+                        }
+                        catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }
+                });
+            var actual = a.solve(y, Matrix.Method.GAUSS_JORDAN, budget);
+            assertMatrixEquals(expected.asUnique().get(), actual.asUnique().get());
+            assertTrue(Files.exists(file), "later snapshots are written");
+        }
+        finally {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(missing);
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    @Test
+    public void testCountersReset() throws Exception {
+        var dir = Files.createTempDirectory("gauss");
+        var file = dir.resolve("solve.ckpt");
+        try {
+            var checkpoint = new Checkpoint(file).setPivots(4);
+            var small = new Workload().setSeed(16).setSize(3);
+            small.coefficients().solve(small.rightHandSide(), Matrix.Method.GAUSS_JORDAN,
+                new Budget().setCheckpoint(checkpoint));
+            assertFalse(Files.exists(file), "no snapshot within the first solve");
+            var workload = new Workload().setSeed(17).setSize(8);
+            assertThrows(Budget.ExceededException.class, () -> {
+                workload.coefficients().solve(workload.rightHandSide(),
+                    Matrix.Method.GAUSS_JORDAN, Matrix.Normalization.NONE, killedAt(2, checkpoint));
+            });
+            assertFalse(Files.exists(file), "steps of the first solve aren't counted");
+        }
+        finally {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(dir);
+        }
+    }
+}
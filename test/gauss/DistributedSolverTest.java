@@ -0,0 +1,171 @@
+package gauss;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+public class DistributedSolverTest {
+    private Worker start() throws Exception {
+        var worker = new Worker(0);
+        var thread = new Thread(() -> {
+            try {
+                worker.serve();
+            }
+            catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        thread.setDaemon(true);
+        thread.start();
+        return worker;
+    }
+
+    @Test
+    public void testSolve() throws Exception {
+        var system = new Workload().setSeed(4).setSize(30).setDensity(0.2).system();
+        try (var a = start(); var b = start()) {
+            var sol = new DistributedSolver(List.of(a.port(), b.port())).setSeed(1).solve(system);
+            assertTrue(sol.isUnique(), "unique solution exists");
+            assertEquals(system.solve().asUnique().get(), sol.asUnique().get(), "solution matches");
+        }
+    }
+
+    @Test
+    public void testWorkerFailure() throws Exception {
+        var system = new Workload().setSeed(8).setSize(20).setDensity(0.3).system();
+        // Accepts connections and drops them after the first task arrives.
+        var broken = new ServerSocket(0, 0, InetAddress.getLoopbackAddress());
+        var thread = new Thread(() -> {
+            try {
+                while (true) {
+                    var client = broken.accept();
+                    client.getInputStream().read(new byte[1 << 16]);
+                    client.close();
+                }
+            }
+            catch (Exception e) {
+                // Closed by the test.
+            }
+        });
+        thread.setDaemon(true);
+        thread.start();
+        try (broken; var worker = start()) {
+            var ports = new ArrayList<>(List.of(broken.getLocalPort(), worker.port()));
+            var sol = new DistributedSolver(ports).setSeed(2).solve(system);
+            assertEquals(system.solve().asUnique().get(), sol.asUnique().get(), "solution matches");
+        }
+    }
+
+    @Test
+    public void testNoWorkers() throws Exception {
+        var system = new Workload().setSeed(9).setSize(10).system();
+        int port;
+        try (var unused = new ServerSocket(0, 0, InetAddress.getLoopbackAddress())) {
+            port = unused.getLocalPort();
+        }
+        var sol = new DistributedSolver(List.of(port)).solve(system);
+        assertEquals(system.solve().asUnique().get(), sol.asUnique().get(), "solution matches");
+        var singular = new Workload().setSeed(9).setSize(10).setDeficiency(1).system();
+        assertTrue(new DistributedSolver(List.of(port)).solve(singular).isInfinite(),
+            "infinitely many solutions exist");
+    }
+
+    // Accepts connections and never answers them.
+    private ServerSocket unresponsive() throws Exception {
+        var server = new ServerSocket(0, 0, InetAddress.getLoopbackAddress());
+        var clients = new ArrayList<Socket>();
+        var thread = new Thread(() -> {
+            try {
+                while (true) {
+                    clients.add(server.accept());
+                }
+            }
+            catch (Exception e) {
+                // Closed by the test.
+            }
+        });
+        thread.setDaemon(true);
+        thread.start();
+        return server;
+    }
+
+    @Test
+    public void testUnresponsiveWorker() throws Exception {
+        var system = new Workload().setSeed(6).setSize(20).setDensity(0.3).system();
+        var expected = system.solve().asUnique().get();
+        try (var stuck = unresponsive(); var worker = start()) {
+            long start = System.nanoTime();
+            var ports = List.of(stuck.getLocalPort(), worker.port());
+            var sol = new DistributedSolver(ports).setSeed(3).solve(system);
+            assertEquals(expected, sol.asUnique().get(), "solution matches");
+            assertTrue(System.nanoTime() - start < 5_000_000_000L,
+                "stuck worker is abandoned once the job is done");
+        }
+        try (var stuck = unresponsive()) {
+            long start = System.nanoTime();
+            var sol = new DistributedSolver(List.of(stuck.getLocalPort()))
+                .setSeed(3).setTimeout(Duration.ofMillis(200)).solve(system);
+            assertEquals(expected, sol.asUnique().get(), "solved locally after the timeout");
+            assertTrue(System.nanoTime() - start < 5_000_000_000L, "timeout fails the worker");
+        }
+    }
+
+    // Wire form of a system with the given header, row starts and cells.
+    private DataInputStream system(int n, int nnz, int[] start, int[] cols, int[] cells)
+            throws IOException {
+        var bytes = new ByteArrayOutputStream();
+        var out = new DataOutputStream(bytes);
+        out.writeInt(n);
+        out.writeInt(nnz);
+        for (var x : start) {
+            out.writeInt(x);
+        }
+        for (var x : cols) {
+            out.writeInt(x);
+        }
+        for (var x : cells) {
+            out.writeInt(1);
+            out.writeByte(x);
+        }
+        return new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+    }
+
+    private void assertMalformed(DataInputStream in, String message) {
+        var e = assertThrows(IOException.class, () -> Wire.readSystem(in), message);
+        assertEquals("Malformed system", e.getMessage(), message);
+    }
+
+    @Test
+    public void testMalformedSystem() throws Exception {
+        var sparse = Wire.readSystem(system(1, 1, new int[] {0, 1}, new int[] {0},
+            new int[] {2, 1, 3, 1}));
+        assertEquals(new Rational(2), sparse.coefs[0], "coefficient of a well-formed system");
+        assertEquals(new Rational(3), sparse.rhs[0], "right-hand side of a well-formed system");
+        assertMalformed(system(-1, 0, new int[] {}, new int[] {}, new int[] {}), "negative size");
+        assertMalformed(system(1, -1, new int[] {0, 0}, new int[] {}, new int[] {}),
+            "negative nonzero count");
+        assertMalformed(system(2, 1, new int[] {0, 2, 1}, new int[] {0}, new int[] {}),
+            "row start past the end");
+        assertMalformed(system(2, 2, new int[] {0, 2, 1}, new int[] {0, 1}, new int[] {}),
+            "decreasing row starts");
+        assertMalformed(system(1, 1, new int[] {0, 1}, new int[] {0}, new int[] {2, 0, 3, 1}),
+            "zero denominator");
+        var bytes = new ByteArrayOutputStream();
+        var out = new DataOutputStream(bytes);
+        out.writeInt(Wire.MAX_BIG_LENGTH + 1);
+        assertThrows(IOException.class, () -> {
+            Wire.readBig(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        }, "oversized integer");
+    }
+}
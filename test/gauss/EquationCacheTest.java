@@ -0,0 +1,90 @@
+package gauss;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class EquationCacheTest {
+    @Test
+    public void testHit() {
+        var cache = new EquationCache(1 << 20);
+        var a = cache.parse("2x + 3y = 1");
+        var b = cache.parse("2x + 3y = 1");
+        assertEquals(1, cache.misses(), "first lookup parses");
+        assertEquals(1, cache.hits(), "second lookup hits");
+        assertNotSame(a, b, "every lookup gets its own instance");
+        assertEquals(new Rational(3), b.get("y"), "coefficient of y");
+        assertEquals(new Rational(-1), b.getConst(), "const coefficient");
+    }
+
+    @Test
+    public void testCopyOnWrite() {
+        var cache = new EquationCache(1 << 20);
+        var a = cache.parse("x - y = 4");
+        assertFalse(a.isFrozen(), "cached equations can be modified");
+        a.set("x", new Rational(10)).setConst(Rational.ZERO);
+        var b = cache.parse("x - y = 4");
+        assertEquals(Rational.ONE, b.get("x"), "modification doesn't reach the template");
+        assertEquals(new Rational(-4), b.getConst(), "constant of the template is kept");
+    }
+
+    @Test
+    public void testParseFail() {
+        var cache = new EquationCache(1 << 20);
+        assertThrows(Equation.ParseException.class, () -> cache.parse("x + = 1"));
+        assertEquals(0, cache.size(), "failed input isn't cached");
+    }
+
+    @Test
+    public void testEviction() {
+        var cache = new EquationCache(4096);
+        cache.parse("x = 0");
+        for (int i = 0; i < 200; ++i) {
+            cache.parse("x = 0");
+            cache.parse("x + y" + i + " = " + i);
+            assertTrue(cache.weight() <= 4096, "weight stays within the bound");
+        }
+        assertTrue(cache.size() < 200, "templates are evicted");
+        long hits = cache.hits();
+        cache.parse("x = 0");
+        assertEquals(hits + 1, cache.hits(), "frequently used template survives");
+    }
+
+    @Test
+    public void testOversized() {
+        var cache = new EquationCache(100);
+        assertEquals(new Rational(-5), cache.parse("x = 5").getConst(), "parsed without caching");
+        assertEquals(0, cache.size(), "oversized template isn't cached");
+    }
+
+    @Test
+    public void testConcurrent() throws Exception {
+        var cache = new EquationCache(16 << 10);
+        var pool = Executors.newFixedThreadPool(8);
+        try {
+            var futures = new ArrayList<Future<?>>();
+            for (int t = 0; t < 8; ++t) {
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < 2000; ++i) {
+                        int k = i % 100;
+                        var eq = cache.parse(k + "a + b = " + k);
+                        assertEquals(new Rational(k), eq.get("a"), "coefficient of a");
+                        eq.set("a", new Rational(-1));
+                    }
+                    return null;
+                }));
+            }
+            for (var future : futures) {
+                future.get();
+            }
+        }
+        finally {
+            pool.shutdownNow();
+        }
+        assertEquals(8 * 2000, cache.hits() + cache.misses(), "every lookup is counted");
+        assertTrue(cache.weight() <= 16 << 10, "weight stays within the bound");
+    }
+}
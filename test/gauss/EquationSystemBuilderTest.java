@@ -0,0 +1,68 @@
+package gauss;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+
+public class EquationSystemBuilderTest {
+    @Test
+    public void testConcurrentAdd() throws Exception {
+        var builder = new EquationSystemBuilder();
+        int threads = 4;
+        int count = 3000;
+        var workers = new ArrayList<Thread>();
+        for (int t = 0; t < threads; ++t) {
+            int id = t;
+            var thread = new Thread(() -> {
+                for (int i = 0; i < count; ++i) {
+                    builder.add(new Equation()
+                        .set("x", new Rational(id))
+                        .setConst(new Rational(i)));
+                }
+            });
+            workers.add(thread);
+            thread.start();
+        }
+        int last = 0;
+        while (workers.stream().anyMatch(Thread::isAlive)) {
+            var snapshot = builder.snapshot();
+            assertTrue(snapshot.size() >= last, "snapshots grow");
+            for (var eq : snapshot) {
+                assertNotNull(eq, "published equations are visible");
+            }
+            last = snapshot.size();
+        }
+        for (var thread : workers) {
+            thread.join();
+        }
+        var snapshot = builder.snapshot();
+        assertEquals(threads * count, snapshot.size(), "all equations are published");
+        var seen = new HashSet<String>();
+        for (var eq : snapshot) {
+            seen.add(eq.get("x") + ":" + eq.getConst());
+        }
+        assertEquals(threads * count, seen.size(), "every equation is stored once");
+    }
+
+    @Test
+    public void testSnapshotImmutable() {
+        var builder = new EquationSystemBuilder();
+        var eq = Equation.parse("x + y = 3");
+        builder.add(eq);
+        var snapshot = builder.snapshot();
+        eq.set("z", new Rational(1));
+        builder.add(Equation.parse("x - y = 1"));
+        assertEquals(1, snapshot.size(), "snapshot doesn't see later equations");
+        assertEquals(2, snapshot.get(0).size(), "snapshot doesn't see later changes");
+        assertThrows(UnsupportedOperationException.class, () -> {
+            snapshot.add(Equation.parse("x = 1"));
+        });
+        assertThrows(UnsupportedOperationException.class, () -> {
+            snapshot.get(0).set("x", new Rational(2));
+        });
+        var sol = builder.snapshot().solve();
+        assertTrue(sol.isUnique(), "unique solution exists");
+    }
+}
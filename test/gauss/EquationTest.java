@@ -23,6 +23,36 @@ public class EquationTest {
         assertEquals(new Rational(-5), eq.getConst(), "const coefficient");
     }
 
+    @Test
+    public void testFreeze() {
+        var eq = new Equation().set("x", new Rational(2));
+        var copy = eq.snapshot();
+        assertTrue(copy.isFrozen(), "snapshot is frozen");
+        assertSame(copy, copy.snapshot(), "frozen equations aren't copied");
+        eq.set("x", new Rational(3));
+        assertEquals(new Rational(2), copy.get("x"), "snapshot doesn't see changes");
+        assertThrows(UnsupportedOperationException.class, () -> {
+            copy.setConst(new Rational(1));
+        });
+    }
+
+    @Test
+    public void testCopy() {
+        var frozen = new Equation().set("x", new Rational(2)).setConst(new Rational(1)).freeze();
+        var a = frozen.copy();
+        var b = frozen.copy();
+        assertFalse(a.isFrozen(), "copy is mutable");
+        a.set("x", new Rational(5)).set("y", new Rational(1));
+        b.setConst(new Rational(7));
+        assertEquals(new Rational(2), frozen.get("x"), "original doesn't see changes");
+        assertEquals(0, frozen.get("y").signum(), "original doesn't see new variables");
+        assertEquals(new Rational(2), b.get("x"), "other copies don't see changes");
+        assertEquals(new Rational(1), a.getConst(), "constant is copied");
+        var c = a.copy();
+        a.set("x", new Rational(9));
+        assertEquals(new Rational(5), c.get("x"), "copy of a mutable equation is independent");
+    }
+
     @Test
     public void testIterate() {
         var eq = new Equation()
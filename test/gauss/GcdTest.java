@@ -0,0 +1,77 @@
+package gauss;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+public class GcdTest {
+    private static BigInteger big(long x) {
+        return BigInteger.valueOf(x);
+    }
+
+    @Test
+    public void testSpecialCases() {
+        var x = new BigInteger("123456789012345678901234567890");
+        assertEquals(x, Gcd.gcd(x, BigInteger.ZERO), "gcd(x, 0) == x");
+        assertEquals(x, Gcd.gcd(BigInteger.ZERO, x.negate()), "gcd(0, -x) == x");
+        assertEquals(BigInteger.ZERO, Gcd.gcd(BigInteger.ZERO, BigInteger.ZERO), "gcd(0, 0) == 0");
+        assertEquals(BigInteger.ONE, Gcd.gcd(x, BigInteger.ONE.negate()), "gcd(x, -1) == 1");
+        assertEquals(big(2), Gcd.gcd(x, big(1024)), "power of two divides once");
+        assertEquals(big(8), Gcd.gcd(big(-64), big(24)), "power of two on the left");
+        assertEquals(big(6), Gcd.gcd(big(-12), big(18)), "small operands");
+    }
+
+    @Test
+    public void testLargeRandom() {
+        var random = new Random(1);
+        for (int bits : new int[] {Gcd.THRESHOLD, 3 * Gcd.THRESHOLD, 20000, 60000}) {
+            for (int i = 0; i < 4; ++i) {
+                var d = new BigInteger(bits / (i + 2), random).shiftLeft(i);
+                var a = new BigInteger(bits, random).multiply(d);
+                var b = new BigInteger(bits - 100 * i, random).multiply(d).negate();
+                assertEquals(a.gcd(b), Gcd.gcd(a, b), bits + " bits, case " + i);
+            }
+        }
+    }
+
+    @Test
+    public void testUnbalanced() {
+        var random = new Random(2);
+        var d = new BigInteger(3000, random);
+        var a = new BigInteger(50000, random).multiply(d);
+        var b = new BigInteger(9000, random).multiply(d);
+        assertEquals(a.gcd(b), Gcd.gcd(a, b), "operands of very different size");
+    }
+
+    @Test
+    public void testFibonacci() {
+        // Consecutive Fibonacci numbers have all quotients 1, the longest
+        // remainder sequence for their size.
+        var f0 = BigInteger.ONE;
+        var f1 = BigInteger.ONE;
+        for (int i = 0; i < 20000; ++i) {
+            var t = f0.add(f1);
+            f0 = f1;
+            f1 = t;
+        }
+        assertEquals(BigInteger.ONE, Gcd.gcd(f1, f0), "consecutive Fibonacci numbers");
+        var d = BigInteger.TWO.pow(5000).subtract(BigInteger.ONE);
+        assertEquals(d, Gcd.gcd(f1.multiply(d), f0.multiply(d)), "scaled Fibonacci numbers");
+    }
+
+    @Test
+    public void testHalfGcd() {
+        var random = new Random(3);
+        var a = new BigInteger(20000, random).setBit(19999);
+        var b = new BigInteger(19990, random);
+        var r = Gcd.halfGcd(a, b);
+        assertTrue(r.b.bitLength() <= 20000 / 2 + 1, "reduced to half the size");
+        assertTrue(r.a.compareTo(r.b) > 0 && r.b.signum() >= 0, "reduced pair is ordered");
+        assertEquals(a, r.m00.multiply(r.a).add(r.m01.multiply(r.b)), "cofactors give back a");
+        assertEquals(b, r.m10.multiply(r.a).add(r.m11.multiply(r.b)), "cofactors give back b");
+        assertEquals(r.det, r.m00.multiply(r.m11).subtract(r.m01.multiply(r.m10)).intValueExact(),
+            "cofactor matrix is unimodular");
+    }
+}
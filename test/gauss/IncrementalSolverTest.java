@@ -0,0 +1,56 @@
+package gauss;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Random;
+
+public class IncrementalSolverTest {
+    @Test
+    public void testUpdates() {
+        var system = new Workload().setSeed(12).setSize(15).setDensity(0.3).system();
+        var solver = new IncrementalSolver(system);
+        var random = new Random(1);
+        for (int step = 0; step < 30; ++step) {
+            int i = random.nextInt(system.size());
+            Solution<Map<String, Rational>> sol;
+            if (random.nextBoolean()) {
+                sol = solver.setConst(i, new Rational(random.nextInt(21) - 10, random.nextInt(3) + 1));
+            }
+            else {
+                var name = "x" + random.nextInt(system.size());
+                sol = solver.set(i, name, new Rational(random.nextInt(21) - 10));
+            }
+            var expected = system.solve();
+            assertEquals(expected.isUnique(), sol.isUnique(), "step " + step + " uniqueness");
+            if (expected.isUnique()) {
+                assertEquals(expected.asUnique().get(), sol.asUnique().get(), "step " + step);
+            }
+        }
+    }
+
+    @Test
+    public void testSingular() {
+        var system = new EquationSystem();
+        system.add(Equation.parse("x + y = 3"));
+        system.add(Equation.parse("x - y = 1"));
+        var solver = new IncrementalSolver(system);
+        assertTrue(solver.solution().isUnique(), "unique solution exists");
+        assertTrue(solver.set(1, "y", new Rational(1)).isNone(), "parallel lines don't meet");
+        assertTrue(solver.setConst(1, new Rational(-3)).isInfinite(), "lines coincide");
+        var sol = solver.set(1, "y", new Rational(-1));
+        assertTrue(sol.isUnique(), "unique solution exists again");
+        assertEquals(new Rational(3), sol.asUnique().get().get("x"), "x");
+        assertEquals(new Rational(0), sol.asUnique().get().get("y"), "y");
+    }
+
+    @Test
+    public void testNewVariable() {
+        var system = new EquationSystem();
+        system.add(Equation.parse("x + y = 3"));
+        system.add(Equation.parse("x - y = 1"));
+        var solver = new IncrementalSolver(system);
+        assertTrue(solver.set(0, "z", new Rational(1)).isInfinite(), "three unknowns, two equations");
+    }
+}
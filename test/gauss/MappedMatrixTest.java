@@ -0,0 +1,154 @@
+package gauss;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.nio.file.Files;
+
+public class MappedMatrixTest {
+    private void assertMatrixEquals(Matrix expected, Matrix actual) {
+        assertEquals(expected.height(), actual.height(), "matrix heights match");
+        assertEquals(expected.width(), actual.width(), "matrix widths match");
+        for (int i = 0; i < expected.height(); ++i) {
+            for (int j = 0; j < expected.width(); ++j) {
+                assertEquals(expected.get(i, j), actual.get(i, j),
+                    "elements at (" + i + ", " + j + ") match");
+            }
+        }
+    }
+
+    // Hilbert-like matrix which is nonsingular and has growing fractions.
+    private Rational seed(int i, int j) {
+        return new Rational(i == j ? 2 : 1, i + j + 1);
+    }
+
+    @Test
+    public void testGetSetEviction() throws Exception {
+        var file = Files.createTempFile("gauss", ".mat");
+        try (var mat = new MappedMatrix(file, 6, 3, this::seed, 2)) {
+            var big = new Rational(BigInteger.TWO.pow(4000).add(BigInteger.ONE), BigInteger.valueOf(3));
+            mat.set(0, 1, big);
+            for (int i = 0; i < mat.height(); ++i) {
+                mat.set(i, 2, new Rational(-i));
+            }
+            assertEquals(big, mat.get(0, 1), "grown row survives eviction");
+            for (int i = 0; i < mat.height(); ++i) {
+                assertEquals(seed(i, 0), mat.get(i, 0), "untouched cell in row " + i);
+                assertEquals(new Rational(-i), mat.get(i, 2), "modified cell in row " + i);
+            }
+        }
+        finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testSolve() throws Exception {
+        int n = 8;
+        var a = new Matrix(n, n, this::seed);
+        var y = new Matrix(n, 2, (i, j) -> new Rational(i * (j + 1) - 3));
+        var expected = a.solve(y);
+        assertTrue(expected.isUnique(), "unique solution exists");
+        var file = Files.createTempFile("gauss", ".mat");
+        try (var mapped = new MappedMatrix(file, n, n, this::seed, 3)) {
+            for (var method : Matrix.Method.values()) {
+                var actual = mapped.solve(y, method, new Budget());
+                assertTrue(actual.isUnique(), method + ": unique solution exists");
+                assertMatrixEquals(expected.asUnique().get(), actual.asUnique().get());
+            }
+        }
+        finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testSolveInPlace() throws Exception {
+        int n = 8;
+        var a = new Matrix(n, n, this::seed);
+        var y = new Matrix(n, 1, (i, j) -> new Rational(i));
+        var expected = a.solve(y);
+        var file = Files.createTempFile("gauss", ".aug");
+        try (var aug = new MappedMatrix(file, n, n + 1, (i, j) -> {
+            return j < n ? seed(i, j) : new Rational(i);
+        }, 2)) {
+            var actual = aug.solveInPlace(n);
+            assertTrue(actual.isUnique(), "unique solution exists");
+            assertMatrixEquals(expected.asUnique().get(), actual.asUnique().get());
+        }
+        finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testFileSize() throws Exception {
+        var file = Files.createTempFile("gauss", ".mat");
+        try (var mat = new MappedMatrix(file, 60, 60, this::seed, 4)) {
+            mat.flush();
+            assertTrue(Files.size(file) <= 1 << 20, "file is sized to the data");
+        }
+        finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    // Grows the first cell of a row to about `bytes` bytes and writes it out.
+    private void grow(MappedMatrix mat, int row, int bytes) {
+        mat.set(row, 0, new Rational(BigInteger.ONE.shiftLeft(8 * bytes)));
+        mat.flush();
+    }
+
+    @Test
+    public void testSlotReuse() throws Exception {
+        var file = Files.createTempFile("gauss", ".mat");
+        try (var mat = new MappedMatrix(file, 4, 3, this::seed, 2)) {
+            for (int bytes = 1000; bytes <= 8000; bytes *= 2) {
+                grow(mat, 0, bytes);
+            }
+            long allocated = mat.allocated();
+            for (int bytes = 1000; bytes <= 4000; bytes *= 2) {
+                grow(mat, 1, bytes);
+            }
+            assertEquals(allocated, mat.allocated(), "growing row reuses freed slots");
+            assertEquals(new Rational(BigInteger.ONE.shiftLeft(8 * 8000)), mat.get(0, 0),
+                "row in a moved slot");
+            assertEquals(new Rational(BigInteger.ONE.shiftLeft(8 * 4000)), mat.get(1, 0),
+                "row in a reused slot");
+            for (int i = 0; i < 4; ++i) {
+                assertEquals(seed(i, 2), mat.get(i, 2), "untouched cell in row " + i);
+            }
+        }
+        finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testSlotSplitAndMerge() throws Exception {
+        var file = Files.createTempFile("gauss", ".mat");
+        try (var mat = new MappedMatrix(file, 4, 3, this::seed, 2)) {
+            grow(mat, 1, 1000);
+            grow(mat, 2, 1000);
+            grow(mat, 1, 4000);
+            grow(mat, 2, 4000);
+            long allocated = mat.allocated();
+            grow(mat, 3, 2000);
+            assertEquals(allocated, mat.allocated(), "adjacent free slots are merged");
+            grow(mat, 1, 8000);
+            allocated = mat.allocated();
+            grow(mat, 0, 1000);
+            grow(mat, 3, 1000);
+            assertEquals(allocated, mat.allocated(), "free slot is split between rows");
+            for (int i = 0; i < 4; ++i) {
+                assertEquals(seed(i, 2), mat.get(i, 2), "untouched cell in row " + i);
+            }
+            assertEquals(new Rational(BigInteger.ONE.shiftLeft(8 * 8000)), mat.get(1, 0),
+                "row in a moved slot");
+        }
+        finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
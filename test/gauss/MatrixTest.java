@@ -73,4 +73,149 @@ public class MatrixTest {
         var x = a.solve(y);
         assertTrue(x.isInfinite(), "solution is infinite");
     }
+
+    @Test
+    public void testSolveInfiniteSkippedColumn() {
+        var a = new Matrix(3, 3,
+            new Rational(0), new Rational(1), new Rational(0),
+            new Rational(0), new Rational(0), new Rational(1),
+            new Rational(0), new Rational(0), new Rational(2));
+        var y = new Matrix(3, 1,
+            new Rational(1),
+            new Rational(1),
+            new Rational(2));
+        for (var method : Matrix.Method.values()) {
+            var x = a.solve(y, method);
+            assertTrue(x.isInfinite(), method + ": solution is infinite");
+        }
+    }
+
+    @Test
+    public void testSolveBackSubstitution() {
+        var a = new Matrix(4, 3,
+            new Rational(1), new Rational(3), new Rational(2),
+            new Rational(2), new Rational(1, 2), new Rational(3),
+            new Rational(5), new Rational(6), new Rational(1, 3),
+            new Rational(3), new Rational(7, 2), new Rational(5));
+        var y = new Matrix(4, 2,
+            new Rational(13), new Rational(19, 2),
+            new Rational(12), new Rational(49, 4),
+            new Rational(18), new Rational(13, 3),
+            new Rational(25), new Rational(87, 4));
+        var expected = a.solve(y, Matrix.Method.GAUSS_JORDAN);
+        var actual = a.solve(y, Matrix.Method.BACK_SUBSTITUTION);
+        assertTrue(expected.isUnique(), "unique solution exists");
+        assertTrue(actual.isUnique(), "unique solution exists");
+        assertMatrixEquals(expected.asUnique().get(), actual.asUnique().get());
+    }
+
+    @Test
+    public void testSolveBackSubstitutionNone() {
+        var a = new Matrix(3, 3,
+            new Rational(1), new Rational(3), new Rational(2),
+            new Rational(2), new Rational(1, 2), new Rational(3),
+            new Rational(-8), new Rational(-2), new Rational(-12));
+        var y = new Matrix(3, 1,
+            new Rational(13),
+            new Rational(12),
+            new Rational(18));
+        var x = a.solve(y, Matrix.Method.BACK_SUBSTITUTION);
+        assertTrue(x.isNone(), "solution doesn't exist");
+    }
+
+    @Test
+    public void testSolveInPlace() {
+        var aug = new Matrix(2, 3,
+            new Rational(1), new Rational(1), new Rational(3),
+            new Rational(1), new Rational(-1), new Rational(1));
+        var expected = new Matrix(2, 1,
+            new Rational(2),
+            new Rational(1));
+        var x = aug.solveInPlace(2);
+        assertTrue(x.isUnique(), "unique solution exists");
+        assertMatrixEquals(expected, x.asUnique().get());
+    }
+
+    @Test
+    public void testSolveNormalizedRows() {
+        var workload = new Workload().setSeed(2).setSize(12).setDensity(0.5);
+        var a = workload.coefficients();
+        var y = workload.rightHandSide();
+        var expected = a.solve(y);
+        assertTrue(expected.isUnique(), "unique solution exists");
+        for (var method : Matrix.Method.values()) {
+            var actual = a.solve(y, method, Matrix.Normalization.ROWS, new Budget());
+            assertTrue(actual.isUnique(), method + ": unique solution exists");
+            assertMatrixEquals(expected.asUnique().get(), actual.asUnique().get());
+        }
+        var none = new Workload().setSeed(2).setSize(12).setInconsistent(2);
+        assertTrue(none.coefficients().solve(none.rightHandSide(), Matrix.Method.GAUSS_JORDAN,
+            Matrix.Normalization.ROWS, new Budget()).isNone(), "solution doesn't exist");
+    }
+
+    private Matrix naiveMultiply(Matrix a, Matrix b) {
+        return new Matrix(a.height(), b.width(), (i, j) -> {
+            var sum = Rational.ZERO;
+            for (int k = 0; k < a.width(); ++k) {
+                sum = sum.add(a.get(i, k).mul(b.get(k, j)));
+            }
+            return sum;
+        });
+    }
+
+    @Test
+    public void testMultiply() {
+        var a = new Matrix(2, 3,
+            new Rational(1), new Rational(2), new Rational(1, 2),
+            new Rational(0), new Rational(-1), new Rational(3));
+        var b = new Matrix(3, 2,
+            new Rational(2), new Rational(1),
+            new Rational(1, 3), new Rational(0),
+            new Rational(4), new Rational(-2));
+        var expected = new Matrix(2, 2,
+            new Rational(14, 3), new Rational(0),
+            new Rational(35, 3), new Rational(-6));
+        assertMatrixEquals(expected, a.multiply(b));
+    }
+
+    @Test
+    public void testMultiplyBlocked() {
+        var a = new Workload().setSeed(1).setSize(70).setDensity(0.3).coefficients();
+        var b = new Matrix(70, 67, (i, j) -> new Rational(i - j, i + j + 1));
+        assertMatrixEquals(naiveMultiply(a, b), a.multiply(b));
+    }
+
+    @Test
+    public void testTranspose() {
+        var a = new Matrix(2, 3, (i, j) -> new Rational(i * 3 + j, 7));
+        var t = a.transpose();
+        assertEquals(3, t.height(), "transposed height");
+        assertEquals(2, t.width(), "transposed width");
+        for (int i = 0; i < a.height(); ++i) {
+            for (int j = 0; j < a.width(); ++j) {
+                assertEquals(a.get(i, j), t.get(j, i), "cell (" + i + ", " + j + ")");
+            }
+        }
+    }
+
+    @Test
+    public void testMultiplyVector() {
+        var a = new Matrix(2, 2,
+            new Rational(1, 2), new Rational(3),
+            new Rational(-1), new Rational(1, 4));
+        var y = a.multiplyVector(new Rational(2), new Rational(4));
+        assertEquals(new Rational(13), y[0], "first element");
+        assertEquals(new Rational(-1), y[1], "second element");
+    }
+
+    @Test
+    public void testSubtractResidual() {
+        var a = new Workload().setSeed(6).setSize(20).setDensity(0.5);
+        var x = a.coefficients().solve(a.rightHandSide()).asUnique().get();
+        var residual = a.coefficients().residual(x, a.rightHandSide());
+        var difference = a.coefficients().multiply(x).subtract(a.rightHandSide());
+        var zero = new Matrix(20, 1, (i, j) -> Rational.ZERO);
+        assertMatrixEquals(zero, residual);
+        assertMatrixEquals(zero, difference);
+    }
 }
@@ -0,0 +1,40 @@
+package gauss;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+public class RationalAccumulatorTest {
+    @Test
+    public void testAddSub() {
+        var acc = new RationalAccumulator(new Rational(3, 4))
+            .add(new Rational(1, 12))
+            .sub(new Rational(1, 2));
+        assertEquals(new Rational(1, 3), acc.toRational(), "3/4 + 1/12 - 1/2 == 1/3");
+    }
+
+    @Test
+    public void testSubMul() {
+        var acc = new RationalAccumulator(new Rational(1, 5))
+            .subMul(new Rational(2, 3), new Rational(4, 5));
+        assertEquals(new Rational(-1, 3), acc.toRational(), "1/5 - 2/3 * 4/5 == -1/3");
+    }
+
+    @Test
+    public void testDotProduct() {
+        var acc = new RationalAccumulator();
+        acc.addMul(new Rational(1, 2), new Rational(2, 3));
+        acc.addMul(new Rational(-3, 4), new Rational(4, 9));
+        acc.addMul(new Rational(5), new Rational(0));
+        acc.addMul(new Rational(7), new Rational(1, 7));
+        assertEquals(new Rational(1), acc.toRational(), "1/3 - 1/3 + 0 + 1 == 1");
+    }
+
+    @Test
+    public void testSignum() {
+        var acc = new RationalAccumulator(new Rational(1, 6))
+            .subMul(new Rational(1, 2), new Rational(1, 3));
+        assertTrue(acc.isZero(), "1/6 - 1/2 * 1/3 is zero");
+        acc.sub(new Rational(1, 9));
+        assertEquals(-1, acc.signum(), "accumulator is negative");
+    }
+}
@@ -3,6 +3,8 @@ package gauss;
 import static org.junit.jupiter.api.Assertions.*;
 import org.junit.jupiter.api.Test;
 
+import java.math.BigInteger;
+
 public class RationalTest {
     @Test
     public void testAbs() {
@@ -74,6 +76,38 @@ public class RationalTest {
             "1/3 > -1/5");
     }
 
+    @Test
+    public void testCompareSameDenominator() {
+        assertTrue(new Rational(-3, 7).compareTo(new Rational(2, 7)) < 0,
+            "-3/7 < 2/7");
+    }
+
+    @Test
+    public void testCompareAbs() {
+        assertTrue(new Rational(-5, 6).compareAbs(new Rational(5, 7)) > 0,
+            "|-5/6| > |5/7|");
+        assertTrue(new Rational(2, 3).compareAbs(new Rational(-2, 3)) == 0,
+            "|2/3| == |-2/3|");
+        assertTrue(new Rational(0).compareAbs(new Rational(-1, 9)) < 0,
+            "|0| < |-1/9|");
+    }
+
+    @Test
+    public void testSignum() {
+        assertEquals(-1, new Rational(-2, 3).signum());
+        assertEquals(0, new Rational(0, 3).signum());
+        assertEquals(1, new Rational(2, 3).signum());
+        assertTrue(new Rational(0, 5).isZero(), "0/5 is zero");
+        assertFalse(new Rational(1, 5).isZero(), "1/5 isn't zero");
+    }
+
+    @Test
+    public void testInvZero() {
+        assertThrows(IllegalArgumentException.class, () -> {
+            new Rational(0).inv();
+        });
+    }
+
     @Test
     public void testToStringZero() {
         assertEquals("0", new Rational(0).toString());
@@ -98,4 +132,40 @@ public class RationalTest {
     public void testToStringFraction() {
         assertEquals("-12/13", new Rational(-12, 13).toString());
     }
+
+    @Test
+    public void testToStringSmallDecimal() {
+        assertEquals("0.375", new Rational(3, 8).toString());
+    }
+
+    @Test
+    public void testToStringPowerOfFive() {
+        var den = BigInteger.valueOf(5).pow(37);
+        var expected = "0." + "0".repeat(25)
+            + BigInteger.TWO.pow(37).toString();
+        assertEquals(expected, new Rational(BigInteger.ONE, den).toString());
+    }
+
+    @Test
+    public void testToStringMixedPowers() {
+        assertEquals("-123.456", new Rational(-15432, 125).toString());
+        assertEquals("-1/1920", new Rational(-1, 1920).toString());
+    }
+
+    @Test
+    public void testAppendTo() {
+        var buf = new StringBuilder("x = ");
+        new Rational(-7, 20).appendTo(buf);
+        assertEquals("x = -0.35", buf.toString());
+    }
+
+    @Test
+    public void testLargeNormalization() {
+        var d = BigInteger.valueOf(3).pow(5000);
+        var p = BigInteger.valueOf(7).pow(4000).multiply(d);
+        var q = BigInteger.valueOf(11).pow(4000).multiply(d).negate();
+        var x = new Rational(p, q);
+        assertEquals(BigInteger.valueOf(7).pow(4000).negate(), x.numerator(), "numerator is reduced");
+        assertEquals(BigInteger.valueOf(11).pow(4000), x.denominator(), "denominator is reduced");
+    }
 }
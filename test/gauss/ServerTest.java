@@ -0,0 +1,80 @@
+package gauss;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+
+public class ServerTest {
+    private String readReply(BufferedReader in) throws Exception {
+        var buf = new StringBuilder();
+        String line;
+        while ((line = in.readLine()) != null && !line.isEmpty()) {
+            buf.append(line).append("\n");
+        }
+        return buf.toString();
+    }
+
+    private Thread start(Server server) {
+        var thread = new Thread(() -> {
+            try {
+                server.serve();
+            }
+            catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        thread.start();
+        return thread;
+    }
+
+    @Test
+    public void testRequests() throws Exception {
+        var server = new Server(0, 2, 4);
+        Thread thread;
+        try (server) {
+            thread = start(server);
+            try (var client = new Socket(InetAddress.getLoopbackAddress(), server.port())) {
+                var out = new PrintWriter(client.getOutputStream(), true);
+                var in = new BufferedReader(new InputStreamReader(client.getInputStream()));
+                out.print("x + y = 3\nx - y = 1\n\n");
+                out.print("2x + 3y + 4 = 0\n2x + 3y + 2 = 0\n\n");
+                out.print("x + = 1\n\n");
+                out.flush();
+                assertEquals("Unique solution:\nx = 2\ny = 1\n", readReply(in));
+                assertEquals("No solutions exist\n", readReply(in));
+                assertTrue(readReply(in).startsWith("Error: "), "parse error is reported");
+            }
+        }
+        thread.join();
+    }
+
+    @Test
+    public void testConnectionLimit() throws Exception {
+        var server = new Server(0, 1, 4, 1);
+        Thread thread;
+        try (server) {
+            thread = start(server);
+            try (var first = new Socket(InetAddress.getLoopbackAddress(), server.port())) {
+                var out = new PrintWriter(first.getOutputStream(), true);
+                var in = new BufferedReader(new InputStreamReader(first.getInputStream()));
+                out.print("x = 1\n\n");
+                out.flush();
+                assertEquals("Unique solution:\nx = 1\n", readReply(in));
+                try (var second = new Socket(InetAddress.getLoopbackAddress(), server.port())) {
+                    var busy = new BufferedReader(new InputStreamReader(second.getInputStream()));
+                    assertEquals("Error: Server busy\n", readReply(busy), "connection past the cap");
+                    assertNull(busy.readLine(), "refused connection is closed");
+                }
+                out.print("x = 2\n\n");
+                out.flush();
+                assertEquals("Unique solution:\nx = 2\n", readReply(in), "first client is still served");
+            }
+        }
+        thread.join();
+    }
+}
@@ -0,0 +1,64 @@
+package gauss;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class VerifierTest {
+    private EquationSystem system() {
+        var system = new EquationSystem();
+        system.add(Equation.parse("-2*x1 + 3*x2 + x3 = -1"));
+        system.add(Equation.parse("-4*x1 + 5*x2 + 4*x3 = -7"));
+        system.add(Equation.parse("4*x1 - 9*x2 + 2/3*x3 = -19/3"));
+        return system;
+    }
+
+    @Test
+    public void testVerifySystem() {
+        var system = system();
+        var solution = system.solve();
+        assertTrue(solution.isUnique(), "unique solution exists");
+        for (var exact : new boolean[] {false, true}) {
+            var verifier = new Verifier().setExact(exact).setSeed(1);
+            assertTrue(verifier.verify(system, solution.asUnique().get()),
+                "solution is correct, exact: " + exact);
+        }
+    }
+
+    @Test
+    public void testVerifySystemWrong() {
+        var system = system();
+        var values = new HashMap<>(system.solve().asUnique().get());
+        values.put("x2", values.get("x2").add(new Rational(1, 1000003)));
+        for (var exact : new boolean[] {false, true}) {
+            var verifier = new Verifier().setExact(exact).setSeed(1);
+            assertFalse(verifier.verify(system, values), "solution is wrong, exact: " + exact);
+        }
+        var missing = Map.of("x1", new Rational(1), "x2", new Rational(1));
+        assertFalse(new Verifier().verify(system, missing), "missing variable fails");
+    }
+
+    @Test
+    public void testVerifyMatrix() {
+        var a = new Matrix(3, 3,
+            new Rational(1), new Rational(3), new Rational(2),
+            new Rational(2), new Rational(1, 2), new Rational(3),
+            new Rational(5), new Rational(6), new Rational(1, 3));
+        var x = new Matrix(3, 2,
+            new Rational(1), new Rational(0),
+            new Rational(2), new Rational(1, 2),
+            new Rational(3), new Rational(4));
+        var y = new Matrix(3, 2,
+            new Rational(13), new Rational(19, 2),
+            new Rational(12), new Rational(49, 4),
+            new Rational(18), new Rational(13, 3));
+        var wrong = new Matrix(3, 2, (i, j) -> i == 2 && j == 1 ? new Rational(5) : x.get(i, j));
+        for (var exact : new boolean[] {false, true}) {
+            var verifier = new Verifier().setExact(exact).setSeed(7);
+            assertTrue(verifier.verify(a, x, y), "solution is correct, exact: " + exact);
+            assertFalse(verifier.verify(a, wrong, y), "solution is wrong, exact: " + exact);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package gauss;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+public class WiedemannSolverTest {
+    @Test
+    public void testSolveUnique() {
+        var system = new EquationSystem();
+        system.add(Equation.parse("-2*x1 + 3*x2 + x3 = -1"));
+        system.add(Equation.parse("-4*x1 + 5*x2 + 4*x3 = -7"));
+        system.add(Equation.parse("4*x1 - 9*x2 + 2*x3 = -9"));
+        var sol = new WiedemannSolver().setSeed(1).solve(system);
+        assertTrue(sol.isUnique(), "unique solution exists");
+        assertEquals(system.solve().asUnique().get(), sol.asUnique().get(), "solution matches");
+    }
+
+    @Test
+    public void testSolveSparse() {
+        var random = new Random(42);
+        int n = 40;
+        var system = new EquationSystem();
+        for (int i = 0; i < n; ++i) {
+            var eq = new Equation()
+                .set("x" + i, new Rational(random.nextInt(20) + 1, random.nextInt(5) + 1))
+                .setConst(new Rational(random.nextInt(100) - 50, random.nextInt(7) + 1));
+            for (int k = 0; k < 3; ++k) {
+                var name = "x" + random.nextInt(n);
+                eq.set(name, eq.get(name).add(new Rational(random.nextInt(11) - 5)));
+            }
+            system.add(eq);
+        }
+        var expected = system.solve();
+        var actual = new WiedemannSolver().setSeed(3).solve(system);
+        assertTrue(expected.isUnique(), "unique solution exists");
+        assertTrue(actual.isUnique(), "unique solution found");
+        assertEquals(expected.asUnique().get(), actual.asUnique().get(), "solution matches");
+    }
+
+    @Test
+    public void testSolveSingular() {
+        var infinite = new EquationSystem();
+        infinite.add(Equation.parse("x + y = 2"));
+        infinite.add(Equation.parse("2x + 2y = 4"));
+        assertTrue(new WiedemannSolver().setSeed(5).solve(infinite).isInfinite(),
+            "infinitely many solutions exist");
+        var none = new EquationSystem();
+        none.add(Equation.parse("x + y = 2"));
+        none.add(Equation.parse("2x + 2y = 3"));
+        assertTrue(new WiedemannSolver().setSeed(5).solve(none).isNone(), "no solution exists");
+    }
+
+    @Test
+    public void testSolveNotSquare() {
+        var system = new EquationSystem();
+        system.add(Equation.parse("x + 3y + 4z = -1"));
+        system.add(Equation.parse("-2x + 2y + z = 3"));
+        assertTrue(new WiedemannSolver().solve(system).isInfinite(), "infinitely many solutions exist");
+    }
+
+    @Test
+    public void testBudget() {
+        var system = new Workload().setSeed(5).setSize(30).setDensity(0.2).system();
+        var token = new Budget.Token();
+        token.cancel();
+        var e = assertThrows(Budget.ExceededException.class, () -> {
+            new WiedemannSolver().setSeed(1).setBudget(new Budget().setToken(token)).solve(system);
+        });
+        assertEquals(Budget.Reason.CANCELLED, e.getReason());
+        assertTrue(e.getTotal() > 0, "progress counted in primes");
+        assertTrue(e.getMessage().endsWith(" primes"), "message counts primes");
+        var solution = new WiedemannSolver().setSeed(1).setBudget(new Budget()).solve(system);
+        assertEquals(system.solve().asUnique().get(), solution.asUnique().get(), "unlimited budget");
+    }
+
+    @Test
+    public void testMaxPrimes() {
+        var system = new EquationSystem();
+        system.add(Equation.parse("x + y = 3"));
+        system.add(Equation.parse("x - y = 1"));
+        var sparse = new WiedemannSolver.Sparse(system, WiedemannSolver.variables(system));
+        assertEquals(2, WiedemannSolver.maxPrimes(sparse), "primes for small coefficients");
+        var big = new EquationSystem();
+        big.add(Equation.parse("123456789012345678901234567890x + 98765432109876543210y = 3"));
+        big.add(Equation.parse("x - 1/7y = 11111111111111111111111111111"));
+        sparse = new WiedemannSolver.Sparse(big, WiedemannSolver.variables(big));
+        assertTrue(WiedemannSolver.maxPrimes(sparse) > 2, "more primes for large coefficients");
+        var solution = new WiedemannSolver().setSeed(3).solve(big);
+        assertEquals(big.solve().asUnique().get(), solution.asUnique().get(),
+            "solution within the bound");
+    }
+}
@@ -0,0 +1,41 @@
+package gauss;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+public class WorkloadTest {
+    @Test
+    public void testDeterministic() {
+        var a = new Workload().setSeed(11).setSize(12).setDensity(0.3).system();
+        var b = new Workload().setSeed(11).setSize(12).setDensity(0.3).system();
+        assertEquals(a.size(), b.size(), "number of equations");
+        for (int i = 0; i < a.size(); ++i) {
+            assertEquals(a.get(i).toString(), b.get(i).toString(), "equation " + i);
+        }
+    }
+
+    @Test
+    public void testSolutions() {
+        var workload = new Workload().setSeed(3).setSize(15).setDensity(0.4).setBits(6);
+        var x = workload.coefficients().solve(workload.rightHandSide());
+        assertTrue(x.isUnique(), "full rank system has a unique solution");
+        assertTrue(new Verifier().verify(workload.coefficients(), x.asUnique().get(),
+            workload.rightHandSide()), "solution satisfies the system");
+        workload.setDeficiency(2);
+        assertTrue(workload.system().solve().isInfinite(), "deficient system has many solutions");
+        workload.setInconsistent(1);
+        assertTrue(workload.system().solve().isNone(), "inconsistent system has no solutions");
+    }
+
+    @Test
+    public void testBlocks() {
+        var a = new Workload().setSeed(5).setSize(9).setBlocks(3).coefficients();
+        for (int i = 0; i < a.height(); ++i) {
+            for (int j = 0; j < a.width(); ++j) {
+                if (i / 3 != j / 3) {
+                    assertTrue(a.get(i, j).isZero(), "cell (" + i + ", " + j + ") is outside blocks");
+                }
+            }
+        }
+    }
+}